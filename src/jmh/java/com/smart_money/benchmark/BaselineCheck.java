@@ -0,0 +1,79 @@
+package com.smart_money.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result with the committed baseline and exits with status 1 when a benchmark's time or
+ * normalized allocation per operation grew by more than the tolerance. All benchmarks here report average time,
+ * so lower is better for both. Benchmarks missing from the baseline are reported and skipped.
+ *
+ * <pre>
+ * BaselineCheck baseline.json result.json 0.25
+ * </pre>
+ */
+public class BaselineCheck {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    public static void main(String[] args) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> result = index(objectMapper.readTree(new File(args[1])));
+        double tolerance = Double.parseDouble(args[2]);
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+            JsonNode expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.printf("NEW      %s%n", entry.getKey());
+                continue;
+            }
+            double expectedTime = expected.path("primaryMetric").path("score").asDouble();
+            double actualTime = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double expectedBytes = allocation(expected);
+            double actualBytes = allocation(entry.getValue());
+
+            boolean slower = actualTime > expectedTime * (1 + tolerance);
+            boolean heavier = actualBytes > expectedBytes * (1 + tolerance) + ALLOCATION_SLACK_BYTES;
+            if (slower || heavier) regressions++;
+            System.out.printf("%-8s %s: %.1f -> %.1f ns/op, %.0f -> %.0f B/op%n",
+                    slower || heavier ? "REGRESS" : "OK", entry.getKey(),
+                    expectedTime, actualTime, expectedBytes, actualBytes);
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode runs) {
+        Map<String, JsonNode> byKey = new HashMap<>();
+        for (JsonNode run : runs) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), run);
+        }
+        return byKey;
+    }
+
+    private static double allocation(JsonNode run) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = run.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) return metric.getValue().path("score").asDouble();
+        }
+        return 0;
+    }
+}
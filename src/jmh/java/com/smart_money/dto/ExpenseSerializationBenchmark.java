@@ -0,0 +1,51 @@
+package com.smart_money.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.expense.ResponseExpenseDTO;
+import com.smart_money.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes the body of {@code GET /expenses}, configured like the application's {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseSerializationBenchmark {
+    @Param({"1", "50", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ResponseExpenseDTO<List<ExpenseDTO>> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Instant occurredAt = Instant.parse("2026-01-01T12:00:00Z");
+        List<ExpenseDTO> expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            expenses.add(new ExpenseDTO((long) i, "Expense " + i, "Groceries and household items", 1_999L + i,
+                    Money.DEFAULT_CURRENCY, 42L, occurredAt.plusSeconds(i * 3_600L), i % 3 == 0 ? null : 7L));
+        }
+        response = new ResponseExpenseDTO<>(true, expenses, "Expenses fetched successfully");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
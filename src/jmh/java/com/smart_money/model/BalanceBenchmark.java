@@ -0,0 +1,26 @@
+package com.smart_money.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceBenchmark {
+    private long incomesMinor = 125_430_075L;
+    private long expensesMinor = 98_712_340L;
+
+    @Benchmark
+    public void computeBalance(Blackhole blackhole) {
+        Balance balance = new Balance(incomesMinor, expensesMinor, Money.DEFAULT_CURRENCY);
+        blackhole.consume(balance.getTotalIncomes());
+        blackhole.consume(balance.getTotalExpenses());
+        blackhole.consume(balance.getNetBalance());
+        blackhole.consume(balance.getCurrency());
+    }
+}
@@ -0,0 +1,61 @@
+package com.smart_money.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketRateLimiterBenchmark {
+    private static final int KEYS = 1024;
+
+    private TokenBucketRateLimiter unlimited;
+    private TokenBucketRateLimiter exhausted;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // One token per nanosecond never runs dry, so every take goes through the CAS.
+        unlimited = new TokenBucketRateLimiter(1_000_000_000, Duration.ofSeconds(1), 100_000);
+        exhausted = new TokenBucketRateLimiter(1, Duration.ofHours(1), 100_000);
+        exhausted.tryAcquire("203.0.113.7");
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "198.51.100." + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class KeyCursor {
+        int next;
+    }
+
+    @Benchmark
+    public long acquireAllowed() {
+        return unlimited.tryAcquire("203.0.113.7");
+    }
+
+    @Benchmark
+    public long acquireRejected() {
+        return exhausted.tryAcquire("203.0.113.7");
+    }
+
+    @Benchmark
+    public long acquireDistinctKeys(KeyCursor cursor) {
+        return unlimited.tryAcquire(keys[cursor.next++ & (KEYS - 1)]);
+    }
+
+    /**
+     * Every thread takes from the same bucket, so the CAS loses and retries under contention.
+     */
+    @Benchmark
+    @Threads(4)
+    public long acquireAllowedContended() {
+        return unlimited.tryAcquire("203.0.113.7");
+    }
+}
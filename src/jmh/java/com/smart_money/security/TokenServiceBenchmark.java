@@ -0,0 +1,37 @@
+package com.smart_money.security;
+
+import com.smart_money.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+    private TokenService tokenService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService("#nicolas@larissa@spain");
+        user = new User("Maria", "Silva", "maria.silva@example.com", "hash", LocalDate.of(1990, 5, 17), null);
+        user.setId(42L);
+        token = tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return tokenService.validateToken(token);
+    }
+}
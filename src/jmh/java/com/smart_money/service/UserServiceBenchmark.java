@@ -0,0 +1,21 @@
+package com.smart_money.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+    @Param({"maria", "  maria   DE los ANGELES  silva "})
+    public String input;
+
+    @Benchmark
+    public String capitalizeFirstLetters() {
+        return UserService.capitalizeFirstLetters(input);
+    }
+}
@@ -0,0 +1,72 @@
+package com.smart_money.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latencies and errors of one client, per operation. Each client owns its recorder, so recording needs no
+ * synchronization; recorders are merged once the run is over.
+ */
+final class LatencyRecorder {
+    private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Integer> sizes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+    void record(Operation operation, long nanos, boolean failed) {
+        long[] values = latencies.computeIfAbsent(operation, ignored -> new long[1024]);
+        int size = sizes.getOrDefault(operation, 0);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            latencies.put(operation, values);
+        }
+        values[size] = nanos;
+        sizes.put(operation, size + 1);
+        if (failed) errors.merge(operation, 1L, Long::sum);
+    }
+
+    void mergeInto(LatencyRecorder target) {
+        latencies.forEach((operation, values) -> {
+            int size = sizes.get(operation);
+            for (int i = 0; i < size; i++) target.record(operation, values[i], false);
+        });
+        errors.forEach((operation, count) -> target.errors.merge(operation, count, Long::sum));
+    }
+
+    void print(double seconds) {
+        System.out.printf("%-38s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long[] all = new long[0];
+        long allErrors = 0;
+        for (Operation operation : Operation.values()) {
+            if (!latencies.containsKey(operation)) continue;
+            long[] sorted = Arrays.copyOf(latencies.get(operation), sizes.get(operation));
+            Arrays.sort(sorted);
+            long errorCount = errors.getOrDefault(operation, 0L);
+            printRow(operation.label(), sorted, errorCount, seconds);
+            all = concat(all, sorted);
+            allErrors += errorCount;
+        }
+        Arrays.sort(all);
+        printRow("all", all, allErrors, seconds);
+    }
+
+    private static void printRow(String label, long[] sorted, long errorCount, double seconds) {
+        System.out.printf("%-38s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                label, sorted.length, errorCount, sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
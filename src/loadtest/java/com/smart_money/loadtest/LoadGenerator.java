@@ -0,0 +1,199 @@
+package com.smart_money.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Closed-loop load: every client runs on its own virtual thread, holds the session cookie of one user and sends
+ * its next request as soon as the previous one returns. Operations are drawn from the configured mix; a login
+ * switches the client to another user. Clients delete only expenses they created, so the data set stays stable.
+ * Ranges and search terms are random, so those reads miss the application caches and reach the database.
+ */
+final class LoadGenerator {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_CREATED_PER_CLIENT = 1000;
+
+    private final String baseUrl;
+    private final List<Long> userIds;
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final List<Client> clients = new ArrayList<>();
+
+    LoadGenerator(String baseUrl, List<Long> userIds, LoadTestConfig config) {
+        this.baseUrl = baseUrl;
+        this.userIds = userIds;
+        this.config = config;
+        this.operations = config.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += config.mix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        for (int i = 0; i < config.clients(); i++) {
+            clients.add(new Client(new Random(config.seed() + i)));
+        }
+    }
+
+    /**
+     * Runs every client for the given time and returns their merged latencies.
+     */
+    LatencyRecorder run(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> threads = new ArrayList<>();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        for (Client client : clients) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            threads.add(Thread.ofVirtual().name("load-client-" + threads.size()).start(() -> client.runUntil(deadline, recorder)));
+        }
+        LatencyRecorder merged = new LatencyRecorder();
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).join();
+            recorders.get(i).mergeInto(merged);
+        }
+        return merged;
+    }
+
+    private final class Client {
+        private final Random random;
+        private final HttpClient http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        private final Deque<Long> created = new ArrayDeque<>();
+        private int user = -1;
+        private String nextCursor;
+
+        Client(Random random) {
+            this.random = random;
+        }
+
+        void runUntil(long deadline, LatencyRecorder recorder) {
+            while (System.nanoTime() < deadline) {
+                Operation operation = user < 0 ? Operation.LOGIN : nextOperation();
+                if (operation == Operation.DELETE && created.isEmpty()) operation = Operation.CREATE;
+
+                long startedAt = System.nanoTime();
+                boolean failed;
+                try {
+                    failed = !send(operation);
+                } catch (IOException e) {
+                    failed = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                recorder.record(operation, System.nanoTime() - startedAt, failed);
+            }
+        }
+
+        private Operation nextOperation() {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) return operations[i];
+            }
+            return operations[operations.length - 1];
+        }
+
+        private boolean send(Operation operation) throws IOException, InterruptedException {
+            return switch (operation) {
+                case LOGIN -> login();
+                case BALANCE -> get("/balance?userId=" + userIds.get(user)).statusCode() == 200;
+                case RANGE -> get("/balance?userId=" + userIds.get(user) + "&" + randomRange()).statusCode() == 200;
+                case LIST -> list();
+                case SEARCH -> get("/expenses/search?q=" + randomTitle()).statusCode() == 200;
+                case SUMMARY -> get("/categories/summary?type=expenses&" + randomRange()).statusCode() == 200;
+                case CREATE -> create();
+                case DELETE -> delete();
+            };
+        }
+
+        private boolean login() throws IOException, InterruptedException {
+            int candidate = random.nextInt(userIds.size());
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of(
+                            "email", SyntheticDataLoader.email(candidate),
+                            "password", SyntheticDataLoader.PASSWORD)))));
+            if (response.statusCode() != 200) return false;
+            user = candidate;
+            created.clear();
+            nextCursor = null;
+            return true;
+        }
+
+        private boolean list() throws IOException, InterruptedException {
+            String path = "/expenses/owner/" + userIds.get(user) + "/page?limit=50";
+            if (nextCursor != null && random.nextBoolean()) path += "&cursor=" + nextCursor;
+            HttpResponse<String> response = get(path);
+            if (response.statusCode() != 200) return false;
+            JsonNode cursor = objectMapper.readTree(response.body()).path("data").path("nextCursor");
+            nextCursor = cursor.isTextual() ? cursor.asText() : null;
+            return true;
+        }
+
+        private boolean create() throws IOException, InterruptedException {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "title", "Load test",
+                    "description", "created by client",
+                    "value", (1 + random.nextInt(20_000)) / 100.0));
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/expenses"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+            if (response.statusCode() != 200) return false;
+            if (created.size() == MAX_CREATED_PER_CLIENT) created.removeFirst();
+            created.addLast(objectMapper.readTree(response.body()).path("data").path("id").asLong());
+            return true;
+        }
+
+        private boolean delete() throws IOException, InterruptedException {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/expenses/" + created.removeLast())).DELETE());
+            return response.statusCode() == 200;
+        }
+
+        /**
+         * Up to 60 days within the synthetic history, starting and ending at any minute so the partial days at
+         * either end are summed too.
+         */
+        private String randomRange() {
+            Instant from = Instant.now().minus(Duration.ofMinutes(random.nextInt(config.historyDays() * 24 * 60)));
+            Instant to = from.plus(Duration.ofMinutes(1 + random.nextInt(60 * 24 * 60)));
+            return "from=" + from + "&to=" + to;
+        }
+
+        private String randomTitle() {
+            return SyntheticDataLoader.TITLES[random.nextInt(SyntheticDataLoader.TITLES.length)].toLowerCase(Locale.ROOT);
+        }
+
+        private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+            return send(HttpRequest.newBuilder(uri(path)).GET());
+        }
+
+        private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return http.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private URI uri(String path) {
+            return URI.create(baseUrl + path);
+        }
+    }
+}
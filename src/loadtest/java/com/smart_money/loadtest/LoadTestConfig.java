@@ -0,0 +1,46 @@
+package com.smart_money.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of one load test run, read from {@code loadtest.*} system properties.
+ *
+ * @param mix relative weight of each operation, e.g. {@code login=5,balance=35,list=35,create=15,delete=10}; the
+ *            other operations are {@code range}, {@code search} and {@code summary}
+ */
+record LoadTestConfig(int users, int maxHistory, double zipfExponent, double incomeShare, int historyDays, long seed,
+                      int clients, Duration warmup, Duration duration, Map<Operation, Integer> mix, String appProfiles) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.parseInt(property("users", "1000")),
+                Integer.parseInt(property("max-history", "5000")),
+                Double.parseDouble(property("zipf-exponent", "1.1")),
+                Double.parseDouble(property("income-share", "0.2")),
+                Integer.parseInt(property("history-days", "730")),
+                Long.parseLong(property("seed", "42")),
+                Integer.parseInt(property("clients", "64")),
+                DurationStyle.detectAndParse(property("warmup", "15s")),
+                DurationStyle.detectAndParse(property("duration", "60s")),
+                parseMix(property("mix", "login=5,balance=35,list=35,create=15,delete=10")),
+                property("app-profiles", "loadtest"));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,47 @@
+package com.smart_money.loadtest;
+
+import com.smart_money.SmartMoneyApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Starts an embedded PostgreSQL and the application against it, fills the schema with synthetic data and
+ * drives a scripted request mix, then prints throughput and latency percentiles per endpoint. Settings come
+ * from {@code loadtest.*} system properties; see {@link LoadTestConfig}.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println(config);
+        // DevTools would restart the application on another thread and swallow its startup failures.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(SmartMoneyApplication.class)
+                     .profiles(config.appProfiles().split(","))
+                     .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                             "--spring.datasource.username=postgres",
+                             "--spring.datasource.password=postgres")) {
+
+            String passwordHash = context.getBean(PasswordEncoder.class).encode(SyntheticDataLoader.PASSWORD);
+            long loadStartedAt = System.nanoTime();
+            List<Long> userIds = new SyntheticDataLoader(config).load(context.getBean(DataSource.class), passwordHash);
+            System.out.printf("Data loaded in %.1f s%n", (System.nanoTime() - loadStartedAt) / 1e9);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator("http://localhost:" + port, userIds, config);
+
+            System.out.printf("Warming up for %s with %d clients%n", config.warmup(), config.clients());
+            generator.run(config.warmup());
+            System.out.printf("Measuring for %s%n", config.duration());
+            generator.run(config.duration()).print(config.duration().toMillis() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.smart_money.loadtest;
+
+/**
+ * The requests a simulated client sends, each reported under its own label.
+ */
+enum Operation {
+    LOGIN("POST /auth/login"),
+    BALANCE("GET /balance"),
+    RANGE("GET /balance?from&to"),
+    LIST("GET /expenses/owner/{ownerId}/page"),
+    SEARCH("GET /expenses/search"),
+    SUMMARY("GET /categories/summary"),
+    CREATE("POST /expenses"),
+    DELETE("DELETE /expenses/{id}");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+}
@@ -0,0 +1,142 @@
+package com.smart_money.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills an empty schema with synthetic users and transaction histories through {@code COPY}, then derives the
+ * balance ledgers in one statement. History sizes follow a Zipf distribution, so a few users own most rows.
+ * Rollups are left to be built on demand, as for rows that predate them. The same seed yields the same data.
+ */
+final class SyntheticDataLoader {
+    static final String PASSWORD = "loadtest-password";
+
+    private static final int FLUSH_BYTES = 1 << 20;
+    static final String[] TITLES = {"Groceries", "Rent", "Coffee", "Uber", "Gym", "Netflix", "Lunch", "Fuel",
+            "Pharmacy", "Electricity", "Internet", "Books", "Cinema", "Dinner", "Insurance"};
+    private static final String[] DESCRIPTIONS = {"", "monthly", "with friends", "card payment", "weekend trip",
+            "shared with family", "office"};
+
+    private final LoadTestConfig config;
+
+    SyntheticDataLoader(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Returns the ids of the generated users, whose emails are {@code loadtest-<n>@example.com}.
+     */
+    List<Long> load(DataSource dataSource, String passwordHash) throws SQLException {
+        Random random = new Random(config.seed());
+        ZipfDistribution historySizes = new ZipfDistribution(config.maxHistory(), config.zipfExponent());
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        long historySeconds = config.historyDays() * 86_400L;
+
+        try (Connection connection = dataSource.getConnection()) {
+            CopyWriter users = new CopyWriter(dataSource, "COPY users (name, last_name, email, password) FROM STDIN");
+            for (int n = 0; n < config.users(); n++) {
+                users.row("Load", "Tester " + n, email(n), passwordHash);
+            }
+            users.finish();
+
+            List<Long> userIds = new ArrayList<>(config.users());
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT id FROM users WHERE email LIKE 'loadtest-%' ORDER BY id")) {
+                while (rows.next()) userIds.add(rows.getLong(1));
+            }
+
+            CopyWriter expenses = new CopyWriter(dataSource,
+                    "COPY expenses (title, description, amount_minor, currency, occurred_at, owner_id) FROM STDIN");
+            CopyWriter incomes = new CopyWriter(dataSource,
+                    "COPY incomes (title, description, amount_minor, currency, occurred_at, owner_id) FROM STDIN");
+            long rows = 0;
+            for (Long userId : userIds) {
+                int size = historySizes.sample(random);
+                for (int i = 0; i < size; i++) {
+                    boolean income = random.nextDouble() < config.incomeShare();
+                    String occurredAt = now.minusSeconds((long) (random.nextDouble() * historySeconds)).toString();
+                    String title = TITLES[random.nextInt(TITLES.length)];
+                    String description = DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+                    long amountMinor = income
+                            ? 50_000 + random.nextInt(500_000)
+                            : 100 + (long) (random.nextDouble() * random.nextDouble() * 50_000);
+                    (income ? incomes : expenses).row(title, description, String.valueOf(amountMinor), "USD",
+                            occurredAt, userId.toString());
+                }
+                rows += size;
+            }
+            expenses.finish();
+            incomes.finish();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO balance_ledgers " +
+                        "(owner_id, total_incomes_minor, total_expenses_minor, net_minor, version, rollups_ready) " +
+                        "SELECT u.id, coalesce(i.total, 0), coalesce(e.total, 0), coalesce(i.total, 0) - coalesce(e.total, 0), 1, false " +
+                        "FROM users u " +
+                        "LEFT JOIN (SELECT owner_id, sum(amount_minor) AS total FROM incomes GROUP BY owner_id) i ON i.owner_id = u.id " +
+                        "LEFT JOIN (SELECT owner_id, sum(amount_minor) AS total FROM expenses GROUP BY owner_id) e ON e.owner_id = u.id " +
+                        "WHERE u.email LIKE 'loadtest-%'");
+                statement.executeUpdate("INSERT INTO user_emails (owner_id, email) " +
+                        "SELECT id, email FROM users WHERE email LIKE 'loadtest-%'");
+                statement.execute("ANALYZE");
+            }
+            System.out.printf("Loaded %d users and %d transactions%n", userIds.size(), rows);
+            return userIds;
+        }
+    }
+
+    static String email(int n) {
+        return "loadtest-" + n + "@example.com";
+    }
+
+    /**
+     * Streams tab-separated rows into one {@code COPY ... FROM STDIN} on its own connection, since a connection
+     * runs one copy at a time, flushing about every megabyte. Values must not contain tabs, newlines or backslashes.
+     */
+    private static final class CopyWriter {
+        private final Connection connection;
+        private final CopyIn copy;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 1024);
+
+        CopyWriter(DataSource dataSource, String sql) throws SQLException {
+            this.connection = dataSource.getConnection();
+            this.copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        void row(String... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) buffer.append('\t');
+                buffer.append(values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_BYTES) flush();
+        }
+
+        void finish() throws SQLException {
+            try {
+                flush();
+                copy.endCopy();
+            } finally {
+                connection.close();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+}
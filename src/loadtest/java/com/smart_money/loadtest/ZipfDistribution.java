@@ -0,0 +1,29 @@
+package com.smart_money.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples integers in {@code [1, max]} with probability proportional to {@code 1 / k^exponent}, so most draws
+ * are small and a long tail is large.
+ */
+final class ZipfDistribution {
+    private final double[] cumulative;
+
+    ZipfDistribution(int max, double exponent) {
+        cumulative = new double[max];
+        double sum = 0;
+        for (int k = 1; k <= max; k++) {
+            sum += 1 / Math.pow(k, exponent);
+            cumulative[k - 1] = sum;
+        }
+        for (int i = 0; i < max; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1) + 1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.smart_money.config;
+
+import com.smart_money.dto.response.user.ResponseUserDTO;
+import com.smart_money.security.PasswordHashingOverloadedException;
+import com.smart_money.security.RateLimitExceededException;
+import com.smart_money.service.CategoryNameTakenException;
+import com.smart_money.service.CategoryNotFoundException;
+import com.smart_money.service.EmailAlreadyRegisteredException;
+import com.smart_money.service.SyncCursorExpiredException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handlePasswordHashingOverloaded(PasswordHashingOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+
+    @ExceptionHandler(ShardMovingException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handleShardMoving(ShardMovingException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handleRateLimitExceeded(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+
+    @ExceptionHandler(SyncCursorExpiredException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handleSyncCursorExpired(SyncCursorExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+
+    @ExceptionHandler(CategoryNotFoundException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handleCategoryNotFound(CategoryNotFoundException e) {
+        return ResponseEntity.badRequest()
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+
+    @ExceptionHandler(CategoryNameTakenException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handleCategoryNameTaken(CategoryNameTakenException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+
+    @ExceptionHandler(EmailAlreadyRegisteredException.class)
+    public ResponseEntity<ResponseUserDTO<Void>> handleEmailAlreadyRegistered(EmailAlreadyRegisteredException e) {
+        return ResponseEntity.badRequest()
+                .body(new ResponseUserDTO<>(false, null, e.getMessage()));
+    }
+}
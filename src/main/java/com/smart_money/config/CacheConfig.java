@@ -0,0 +1,49 @@
+package com.smart_money.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded in-process caches, each configured with {@code cache.<name>.enabled}, {@code .max-size} and
+ * {@code .ttl}. A disabled cache is replaced by a no-op cache so the annotated methods always hit the database.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BALANCES = "balances";
+    public static final String EXPENSE_FIRST_PAGES = "expenseFirstPages";
+    public static final String INCOME_FIRST_PAGES = "incomeFirstPages";
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                buildCache(environment, BALANCES),
+                buildCache(environment, EXPENSE_FIRST_PAGES),
+                buildCache(environment, INCOME_FIRST_PAGES)));
+        return cacheManager;
+    }
+
+    private static Cache buildCache(Environment environment, String name) {
+        String prefix = "cache." + name + ".";
+        if (!environment.getProperty(prefix + "enabled", Boolean.class, true)) {
+            return new NoOpCache(name);
+        }
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(environment.getProperty(prefix + "max-size", Long.class, 10_000L))
+                .expireAfterWrite(environment.getProperty(prefix + "ttl", Duration.class, Duration.ofMinutes(10)))
+                .recordStats()
+                .build());
+    }
+}
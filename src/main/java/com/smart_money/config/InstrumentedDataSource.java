@@ -0,0 +1,106 @@
+package com.smart_money.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times every statement execution on the wrapped pool and counts it towards the current request. Statements
+ * slower than the threshold are always logged; faster ones only at the sample rate, so the log stays cheap
+ * under load. Entries are written as key/value pairs for the structured console format.
+ */
+final class InstrumentedDataSource extends DelegatingDataSource {
+    private static final Logger log = LoggerFactory.getLogger("sql");
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+
+    InstrumentedDataSource(DataSource target, Duration slowThreshold, double sampleRate) {
+        super(target);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "prepareStatement", "prepareCall" -> wrap((Statement) result, (String) args[0]);
+                        case "createStatement" -> wrap((Statement) result, null);
+                        default -> result;
+                    };
+                });
+    }
+
+    private Statement wrap(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!EXECUTE_METHODS.contains(method.getName())) {
+                        return invoke(statement, method, args);
+                    }
+                    long startedAt = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        String sql = preparedSql != null ? preparedSql
+                                : args != null && args.length > 0 && args[0] instanceof String text ? text
+                                : "<batch>";
+                        record(sql, method.getName(), System.nanoTime() - startedAt);
+                    }
+                });
+    }
+
+    private void record(String sql, String operation, long elapsedNanos) {
+        RequestQueryCounter.increment();
+        if (elapsedNanos >= slowThresholdNanos) {
+            log.atWarn()
+                    .addKeyValue("durationMs", elapsedNanos / 1_000_000)
+                    .addKeyValue("operation", operation)
+                    .addKeyValue("sql", sql)
+                    .log("Slow SQL statement");
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.atInfo()
+                    .addKeyValue("durationMs", elapsedNanos / 1_000_000)
+                    .addKeyValue("operation", operation)
+                    .addKeyValue("sql", sql)
+                    .log("Sampled SQL statement");
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
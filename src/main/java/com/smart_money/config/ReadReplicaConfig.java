@@ -0,0 +1,122 @@
+package com.smart_money.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sends read-only transactions to the replicas listed in {@code datasource.replica-urls} and everything else to
+ * {@code spring.datasource.url}. Connections are fetched lazily, so the read-only flag of the transaction is known
+ * by the time one is chosen. Without replica URLs this configuration is skipped and Boot's single pool is used.
+ * Keep {@code datasource.routing.read-your-writes} above {@code datasource.routing.max-replica-lag}, so a user's
+ * reads return to replicas only once those have caught up with the user's writes. That window is tracked in each
+ * instance's memory, so with several instances the load balancer must keep a user's requests on one instance
+ * (session affinity on the user or their token); a read that lands on another instance right after a write may
+ * otherwise be served by a lagging replica. Not combined with sharding.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replica-urls:}'.isBlank() and '${sharding.shard-urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${datasource.routing.read-your-writes:5s}") Duration window,
+            @Value("${datasource.routing.max-tracked-users:100000}") long maxUsers) {
+        return new ReadYourWritesTracker(window, maxUsers);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 @Value("${datasource.replica-urls}") List<String> replicaUrls,
+                                 @Value("${datasource.routing.selection:round-robin}") String selection,
+                                 @Value("${datasource.routing.max-replica-lag:5s}") Duration maxReplicaLag,
+                                 @Value("${datasource.routing.health-check-interval:5s}") Duration healthCheckInterval) {
+        HikariDataSource primary = HikariPools.create("primary", properties.determineUrl(), properties, environment, meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = HikariPools.create("replica-" + replicas.size(), url.trim(), properties, environment, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        ReplicaRoutingDataSource replicaRouting = new ReplicaRoutingDataSource(primary, replicas,
+                ReplicaRoutingDataSource.Selection.valueOf(selection.trim().replace('-', '_').toUpperCase(Locale.ROOT)),
+                readYourWritesTracker, maxReplicaLag, healthCheckInterval);
+        replicaRouting.start();
+        return new ReadWriteRoutingDataSource(primary, replicaRouting);
+    }
+
+    /**
+     * Spring holds a session's connection until the session closes, and with open-in-view that is the end of the
+     * request; a replica connection taken for an early read would then serve the request's writes as well.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Closes the pools with the context. Hibernate only marks a connection read-only when it holds it for the whole
+     * session, which the release mode above rules out, so the target is chosen from the transaction's read-only
+     * flag; connections marked read-only directly, as by {@code DataSourceTransactionManager}, go to the replicas too.
+     */
+    static final class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+        private final HikariDataSource primary;
+        private final ReplicaRoutingDataSource replicaRouting;
+
+        ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaRoutingDataSource replicaRouting) {
+            super(new TransactionRoutingDataSource(primary, replicaRouting));
+            setReadOnlyDataSource(replicaRouting);
+            this.primary = primary;
+            this.replicaRouting = replicaRouting;
+        }
+
+        @Override
+        public void close() {
+            replicaRouting.close();
+            primary.close();
+        }
+    }
+
+    private static final class TransactionRoutingDataSource extends AbstractDataSource {
+        private final DataSource primary;
+        private final DataSource replicaRouting;
+
+        private TransactionRoutingDataSource(DataSource primary, DataSource replicaRouting) {
+            this.primary = primary;
+            this.replicaRouting = replicaRouting;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    ? replicaRouting.getConnection() : primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.smart_money.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smart_money.security.CustomUserDetails;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users had their data written within the last {@code window}, so their reads can be kept on the
+ * primary until replicas have caught up. Writes are reported by
+ * {@link com.smart_money.service.UserDataVersionService#bump}, which every write to a user's data goes through;
+ * read-write transactions that change nothing do not count. Only this instance's writes are known here; see
+ * {@link ReadReplicaConfig} for the session affinity that requires.
+ */
+public class ReadYourWritesTracker {
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Called before the writing transaction commits, so its after-commit callbacks already read from the primary.
+     * A commit that fails only keeps the user on the primary a little longer.
+     */
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isCurrentUserWithinWindow() {
+        Long userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,151 @@
+package com.smart_money.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections for read-only transactions. Picks a healthy replica round-robin or by fewest active
+ * connections, and falls back to the primary when the current user wrote recently, when no replica is healthy,
+ * or when the chosen replica cannot be reached. A background check marks replicas down when they are unreachable
+ * or their replay lag exceeds {@code maxLag}, and back up once they recover.
+ */
+class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    enum Selection {ROUND_ROBIN, LEAST_CONNECTIONS}
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Duration checkInterval;
+    private final ScheduledExecutorService healthCheck;
+
+    ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Selection selection,
+                             ReadYourWritesTracker readYourWritesTracker, Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.checkInterval = checkInterval;
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the background health check, whose first run brings the reachable replicas into rotation.
+     */
+    void start() {
+        healthCheck.scheduleWithFixedDelay(this::checkHealth, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWritesTracker.isCurrentUserWithinWindow()) {
+            return primary.getConnection();
+        }
+        Replica replica = select();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.pool.getConnection();
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Replica pools only hand out connections for their configured user, so explicit credentials go to the primary.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        healthCheck.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private Replica select() {
+        Replica chosen = null;
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            int fewest = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (!replica.healthy) continue;
+                int active = replica.pool.getHikariPoolMXBean().getActiveConnections();
+                if (active < fewest) {
+                    fewest = active;
+                    chosen = replica;
+                }
+            }
+            return chosen;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) return replica;
+        }
+        return null;
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                lag.next();
+                double lagSeconds = lag.getDouble(1);
+                if (lagSeconds > maxLagSeconds) {
+                    markDown(replica, "replay lag " + lagSeconds + "s");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Replica {} is back in rotation", replica.pool.getPoolName());
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} taken out of rotation: {}", replica.pool.getPoolName(), reason);
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.smart_money.config;
+
+/**
+ * Counts the SQL statements run by the current request thread. Statements run on other threads, such as the
+ * dashboard pool or {@code @Async} work, are not attributed to the request that started them.
+ */
+final class RequestQueryCounter {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private RequestQueryCounter() {
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) count[0]++;
+    }
+}
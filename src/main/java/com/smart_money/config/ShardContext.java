@@ -0,0 +1,57 @@
+package com.smart_money.config;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's connections are taken from. Connections are fetched lazily, so the shard set when
+ * a transaction runs its first statement is the one the whole transaction uses. Without a shard the first one is
+ * used, which also holds the placement table.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    static void set(String shard) {
+        CURRENT.set(shard);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static <T> T callOn(String shard, Supplier<T> work) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) CURRENT.set(previous);
+            else CURRENT.remove();
+        }
+    }
+
+    /**
+     * Runs the task on the shard that is current now, for handing work to another thread.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String shard = CURRENT.get();
+        if (shard == null) return task;
+        return () -> {
+            String previous = CURRENT.get();
+            CURRENT.set(shard);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) CURRENT.set(previous);
+                else CURRENT.remove();
+            }
+        };
+    }
+}
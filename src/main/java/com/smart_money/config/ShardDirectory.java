@@ -0,0 +1,184 @@
+package com.smart_money.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Knows where each owner's rows live: on the shard pinned in {@code shard_placements}, or else on the owner's shard
+ * on the ring. The placement table lives on the first shard, the catalog, and only holds owners that still have to
+ * be moved to their ring shard or are being moved right now, so every instance simply reloads all of it every
+ * {@code refreshInterval}.
+ */
+public class ShardDirectory implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ShardDirectory.class);
+
+    public record Placement(String shard, boolean moving) {
+    }
+
+    private final ShardRing ring;
+    private final Map<String, HikariDataSource> shards;
+    private final String catalogShard;
+    private final JdbcTemplate catalog;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService refresher;
+    private volatile Map<Long, Placement> pins = Map.of();
+
+    ShardDirectory(ShardRing ring, Map<String, HikariDataSource> shards, Duration refreshInterval) {
+        this.ring = ring;
+        this.shards = shards;
+        this.catalogShard = shards.keySet().iterator().next();
+        this.catalog = new JdbcTemplate(shards.get(catalogShard));
+        this.refreshInterval = refreshInterval;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-placement-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @throws ShardMovingException while the owner's rows are being copied to another shard
+     */
+    public String shardFor(Long ownerId) {
+        Placement pin = pins.get(ownerId);
+        if (pin == null) return ring.shardFor(ownerId);
+        if (pin.moving()) throw new ShardMovingException(Math.max(1, propagationDelay().toSeconds()));
+        return pin.shard();
+    }
+
+    /**
+     * Like {@link #shardFor(Long)}, but returns the old shard while the owner is being moved. Only for reads,
+     * which that shard serves correctly until the move completes.
+     */
+    public String currentShardOf(Long ownerId) {
+        Placement pin = pins.get(ownerId);
+        return pin != null ? pin.shard() : ring.shardFor(ownerId);
+    }
+
+    public String ringShardFor(long ownerId) {
+        return ring.shardFor(ownerId);
+    }
+
+    public List<String> shardNames() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public DataSource dataSource(String shard) {
+        return shards.get(shard);
+    }
+
+    public String catalogShard() {
+        return catalogShard;
+    }
+
+    /**
+     * Time after a placement change until every instance routes by it.
+     */
+    public Duration propagationDelay() {
+        return refreshInterval.multipliedBy(2).plusSeconds(1);
+    }
+
+    /**
+     * User ids come from the catalog's sequence, so they are unique across shards and known before the insert
+     * that has to go to the ring shard of that very id.
+     */
+    public long allocateOwnerId() {
+        return catalog.queryForObject("SELECT nextval(pg_get_serial_sequence('users', 'id'))", Long.class);
+    }
+
+    public Map<Long, Placement> pins() {
+        return pins;
+    }
+
+    public void markMoving(Collection<Long> ownerIds) {
+        catalog.update("UPDATE shard_placements SET moving = true WHERE owner_id = ANY (?)",
+                (Object) ownerIds.toArray(Long[]::new));
+        refresh();
+    }
+
+    public void place(long ownerId, String shard) {
+        catalog.update("UPDATE shard_placements SET shard = ?, moving = false WHERE owner_id = ?", shard, ownerId);
+    }
+
+    /**
+     * Drops the pin once it only repeats the ring; call it after the rows on the old shard are gone, or the startup
+     * check would pin the owner back to them.
+     */
+    public void unpinIfOnRing(long ownerId) {
+        catalog.update("DELETE FROM shard_placements WHERE owner_id = ? AND shard = ?", ownerId, ring.shardFor(ownerId));
+    }
+
+    /**
+     * Pins every owner found on a shard other than its ring shard to where it is. Runs at startup before requests
+     * are served, so a changed ring never sends an owner to a shard that does not have the owner's rows yet.
+     */
+    void pinMisplacedOwners() {
+        for (Map.Entry<String, HikariDataSource> shard : shards.entrySet()) {
+            List<Object[]> misplaced = new ArrayList<>();
+            new JdbcTemplate(shard.getValue()).query("SELECT id FROM users", rs -> {
+                long ownerId = rs.getLong(1);
+                if (!ring.shardFor(ownerId).equals(shard.getKey())) {
+                    misplaced.add(new Object[]{ownerId, shard.getKey()});
+                }
+            });
+            if (misplaced.isEmpty()) continue;
+            catalog.batchUpdate("INSERT INTO shard_placements (owner_id, shard) VALUES (?, ?) ON CONFLICT (owner_id) DO NOTHING",
+                    misplaced);
+            log.info("{} owner(s) on {} belong to another shard and wait to be moved", misplaced.size(), shard.getKey());
+        }
+    }
+
+    /**
+     * Adds the users of the other shards to the catalog's {@code user_emails}, which the migration fills from the
+     * catalog's own users only. Runs at startup; addresses that are already claimed are left alone.
+     */
+    void registerEmails() {
+        for (Map.Entry<String, HikariDataSource> shard : shards.entrySet()) {
+            if (shard.getKey().equals(catalogShard)) continue;
+            List<Object[]> emails = new JdbcTemplate(shard.getValue()).query(
+                    "SELECT id, email FROM users WHERE email IS NOT NULL",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)});
+            if (emails.isEmpty()) continue;
+            catalog.batchUpdate("INSERT INTO user_emails (owner_id, email) VALUES (?, ?) ON CONFLICT DO NOTHING", emails);
+        }
+    }
+
+    void start() {
+        refresh();
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Could not reload shard placements, keeping the previous ones", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void refresh() {
+        Map<Long, Placement> loaded = new HashMap<>();
+        catalog.query("SELECT owner_id, shard, moving FROM shard_placements", rs -> {
+            loaded.put(rs.getLong(1), new Placement(rs.getString(2), rs.getBoolean(3)));
+        });
+        pins = loaded;
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+        shards.values().forEach(HikariDataSource::close);
+    }
+}
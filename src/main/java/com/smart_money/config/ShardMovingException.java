@@ -0,0 +1,18 @@
+package com.smart_money.config;
+
+/**
+ * Thrown when an owner's data is being copied to another shard; mapped to 503 with a {@code Retry-After} of
+ * roughly the time until every instance sees the new placement.
+ */
+public class ShardMovingException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ShardMovingException(long retryAfterSeconds) {
+        super("This account is being moved, try again shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,38 @@
+package com.smart_money.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over the shard names. Each shard owns {@code virtualNodes} points on the ring and an owner
+ * belongs to the first point at or after the hash of its id, so adding a shard only takes owners away from the
+ * others instead of reshuffling everyone. Hashes depend only on the names and ids, never on the JVM.
+ */
+public final class ShardRing {
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    public ShardRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        for (String shard : shards) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.put(hash(((long) shard.hashCode() << 32) | node), shard);
+            }
+        }
+    }
+
+    public String shardFor(long ownerId) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(ownerId));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * The splitmix64 finalizer; consecutive ids land far apart on the ring.
+     */
+    private static long hash(long key) {
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return key ^ (key >>> 31);
+    }
+}
@@ -0,0 +1,114 @@
+package com.smart_money.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs persistence work on the shard of an owner, or on every shard and gathers the results. With a single
+ * database, i.e. without {@code sharding.shard-urls}, all of it runs directly on the calling thread.
+ */
+@Component
+public class ShardRouter {
+    private final ShardDirectory directory;
+    private final ExecutorService scatter;
+
+    public ShardRouter(ObjectProvider<ShardDirectory> directory,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.directory = directory.getIfAvailable();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("shard-scatter-", 1).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "shard-scatter-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.scatter = this.directory != null ? Executors.newThreadPerTaskExecutor(threadFactory) : null;
+    }
+
+    /**
+     * Must be entered before the transaction runs its first statement.
+     */
+    public <T> T callForOwner(Long ownerId, Supplier<T> work) {
+        if (directory == null || ownerId == null) return work.get();
+        return ShardContext.callOn(directory.shardFor(ownerId), work);
+    }
+
+    /**
+     * For reads that must not fail while the owner is being moved, such as authentication.
+     */
+    public <T> T readForOwner(Long ownerId, Supplier<T> work) {
+        if (directory == null || ownerId == null) return work.get();
+        return ShardContext.callOn(directory.currentShardOf(ownerId), work);
+    }
+
+    public void runForOwner(Long ownerId, Runnable work) {
+        callForOwner(ownerId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the work once per shard, concurrently, each run on its own thread and so in its own transaction.
+     * Results are in shard order.
+     */
+    public <T> List<T> callOnEveryShard(Supplier<T> work) {
+        if (directory == null) return List.of(work.get());
+
+        List<Future<T>> futures = new ArrayList<>();
+        for (String shard : directory.shardNames()) {
+            futures.add(scatter.submit(() -> ShardContext.callOn(shard, work)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * For lookups by a key that does not say which shard holds the row, such as an email or a transaction id.
+     */
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> lookup) {
+        return callOnEveryShard(lookup).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    /**
+     * A fresh user id in sharded mode, where the id decides the shard and has to be known before the insert;
+     * {@code null} with a single database, where the insert generates it.
+     */
+    public Long allocateOwnerId() {
+        return directory != null ? directory.allocateOwnerId() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatter != null) scatter.shutdownNow();
+    }
+}
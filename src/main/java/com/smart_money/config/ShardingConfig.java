@@ -0,0 +1,218 @@
+package com.smart_money.config;
+
+import com.smart_money.security.CustomUserDetails;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads owners over the databases listed in {@code sharding.shard-urls}, placed by a consistent-hash ring over
+ * the owner id (see {@link ShardDirectory}). Every shard has the full schema. A request runs on the shard of the
+ * {@code ownerId} in its path, or else of the authenticated user; other threads and other owners go through
+ * {@link ShardRouter}. Shards are named {@code shard-0}, {@code shard-1}, ... by position, and the position also
+ * fixes the shard's residue in the id sequences, so new URLs may only be appended. Without shard URLs this
+ * configuration is skipped.
+ */
+@Configuration
+@ConditionalOnExpression("!'${sharding.shard-urls:}'.isBlank()")
+public class ShardingConfig {
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+    private static final List<String> GENERATED_ID_TABLES = List.of("categories", "expenses", "incomes", "change_log");
+
+    @Bean
+    public ShardDirectory shardDirectory(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                         @Value("${sharding.shard-urls}") List<String> shardUrls,
+                                         @Value("${sharding.virtual-nodes:128}") int virtualNodes,
+                                         @Value("${sharding.placement-refresh:2s}") Duration placementRefresh) {
+        Map<String, HikariDataSource> shards = new LinkedHashMap<>();
+        for (String url : shardUrls) {
+            String name = "shard-" + shards.size();
+            shards.put(name, HikariPools.create(name, url.trim(), properties, environment, meterRegistry));
+        }
+        return new ShardDirectory(new ShardRing(List.copyOf(shards.keySet()), virtualNodes), shards, placementRefresh);
+    }
+
+    @Bean
+    public DataSource dataSource(ShardDirectory shardDirectory) {
+        return new ShardRoutingDataSource(shardDirectory);
+    }
+
+    /**
+     * Migrates every shard, not only the catalog the application's data source falls back to, and prepares the
+     * ids and placements before requests are served.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardDirectory shardDirectory,
+                                                    @Value("${sharding.id-stride:64}") int idStride) {
+        return flyway -> {
+            for (String shard : shardDirectory.shardNames()) {
+                Flyway.configure(flyway.getConfiguration().getClassLoader())
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardDirectory.dataSource(shard))
+                        .load()
+                        .migrate();
+            }
+            interleaveIds(shardDirectory, idStride);
+            shardDirectory.pinMisplacedOwners();
+            shardDirectory.registerEmails();
+            shardDirectory.start();
+        };
+    }
+
+    /**
+     * Gives shard {@code i} the ids congruent to {@code i} modulo the stride, all above every id in use, so rows
+     * keep their ids when a user moves between shards. Shards already on the stride are left alone. User ids are
+     * drawn from the catalog alone and need no such treatment.
+     */
+    static void interleaveIds(ShardDirectory shardDirectory, int stride) {
+        List<String> shards = shardDirectory.shardNames();
+        if (shards.size() > stride) {
+            throw new IllegalStateException("sharding.id-stride must be at least the number of shards");
+        }
+        for (String table : GENERATED_ID_TABLES) {
+            Map<String, JdbcTemplate> pending = new LinkedHashMap<>();
+            long highest = 0;
+            for (String shard : shards) {
+                JdbcTemplate jdbc = new JdbcTemplate(shardDirectory.dataSource(shard));
+                String sequence = jdbc.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+                long increment = jdbc.queryForObject(
+                        "SELECT seqincrement FROM pg_sequence WHERE seqrelid = ?::regclass", Long.class, sequence);
+                if (increment != stride) pending.put(shard, jdbc);
+                highest = Math.max(highest, jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class));
+                highest = Math.max(highest, jdbc.queryForObject("SELECT last_value FROM " + sequence, Long.class));
+            }
+            for (Map.Entry<String, JdbcTemplate> shard : pending.entrySet()) {
+                int residue = shards.indexOf(shard.getKey());
+                long restart = highest - Math.floorMod(highest, stride) + stride + residue;
+                shard.getValue().execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + stride
+                        + " RESTART WITH " + restart);
+                log.info("Ids of {} on {} now start at {} in steps of {}", table, shard.getKey(), restart, stride);
+            }
+        }
+    }
+
+    /**
+     * Spring holds a session's connection until the session closes, and with open-in-view that is the end of the
+     * request; a connection taken for one owner's shard would then serve the request's other transactions too.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public WebMvcConfigurer shardRoutingInterceptor(ShardDirectory shardDirectory) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestShardInterceptor(shardDirectory));
+            }
+        };
+    }
+
+    /**
+     * Picks the shard of {@link ShardContext} when a statement first needs a connection. Closes the shard pools
+     * with the context.
+     */
+    static final class ShardRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+        private final ShardDirectory shardDirectory;
+
+        ShardRoutingDataSource(ShardDirectory shardDirectory) {
+            this.shardDirectory = shardDirectory;
+            AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+                @Override
+                protected Object determineCurrentLookupKey() {
+                    return ShardContext.current();
+                }
+            };
+            Map<Object, Object> targets = new HashMap<>();
+            shardDirectory.shardNames().forEach(shard -> targets.put(shard, shardDirectory.dataSource(shard)));
+            routing.setTargetDataSources(targets);
+            routing.setDefaultTargetDataSource(shardDirectory.dataSource(shardDirectory.catalogShard()));
+            routing.setLenientFallback(false);
+            routing.afterPropertiesSet();
+            setTargetDataSource(routing);
+            afterPropertiesSet();
+        }
+
+        @Override
+        public void close() {
+            shardDirectory.close();
+        }
+    }
+
+    /**
+     * Routes the request to the shard of the {@code ownerId} path variable, or else of the authenticated user.
+     */
+    static final class RequestShardInterceptor implements AsyncHandlerInterceptor {
+        private final ShardDirectory shardDirectory;
+
+        RequestShardInterceptor(ShardDirectory shardDirectory) {
+            this.shardDirectory = shardDirectory;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            Long ownerId = pathOwnerId(request);
+            if (ownerId == null) {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+                    ownerId = user.getId();
+                }
+            }
+            if (ownerId != null) ShardContext.set(shardDirectory.shardFor(ownerId));
+            return true;
+        }
+
+        @Override
+        public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            ShardContext.clear();
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+            ShardContext.clear();
+        }
+
+        private static Long pathOwnerId(HttpServletRequest request) {
+            Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            if (!(variables instanceof Map<?, ?> map) || !(map.get("ownerId") instanceof String ownerId)) return null;
+            try {
+                return Long.valueOf(ownerId);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smart_money.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces Hibernate's SQL echo with {@link InstrumentedDataSource}, configured with
+ * {@code sql.logging.slow-threshold} and {@code sql.logging.sample-rate}. The pool itself stays reachable
+ * through {@code unwrap}, so the HikariCP metrics keep working.
+ */
+@Configuration
+public class SqlInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor(
+            @Value("${sql.logging.slow-threshold:200ms}") Duration slowThreshold,
+            @Value("${sql.logging.sample-rate:0.001}") double sampleRate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, slowThreshold, sampleRate);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -4,13 +4,14 @@ import com.smart_money.dto.response.user.ResponseUserDTO;
 import com.smart_money.dto.request.user.LoginUserDTO;
 import com.smart_money.dto.request.user.RegisterUserDTO;
 import com.smart_money.model.User;
-import com.smart_money.repository.UserRepository;
+import com.smart_money.security.AuthRateLimiter;
+import com.smart_money.security.PasswordHashingService;
 import com.smart_money.security.TokenService;
+import com.smart_money.service.UserService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -22,19 +23,24 @@ import static com.smart_money.service.UserService.capitalizeFirstLetters;
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
+    private final PasswordHashingService passwordHashingService;
     private final TokenService tokenService;
+    private final AuthRateLimiter authRateLimiter;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, TokenService tokenService) {
-        this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+    public AuthController(UserService userService, PasswordHashingService passwordHashingService,
+                          TokenService tokenService, AuthRateLimiter authRateLimiter) {
+        this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
         this.tokenService = tokenService;
+        this.authRateLimiter = authRateLimiter;
     }
 
     @PostMapping("/register")
     public ResponseEntity<ResponseUserDTO> register(@Valid @RequestBody RegisterUserDTO body, HttpServletResponse response) {
-        if (userRepository.findUserByEmail(body.email()).isPresent()) {
+        authRateLimiter.checkEmail(body.email());
+
+        if (userService.isEmailRegistered(body.email())) {
             return ResponseEntity.status(400).body(new ResponseUserDTO(false, null, "Email already registered"));
         }
 
@@ -45,7 +51,7 @@ public class AuthController {
         newUser.setName(capitalizeFirstLetters(body.name()));
         newUser.setLastName(capitalizeFirstLetters(body.lastName()));
         newUser.setEmail(body.email());
-        newUser.setPassword(passwordEncoder.encode(body.password()));
+        newUser.setPassword(passwordHashingService.encode(body.password()));
 
         if (body.dateOfBirth() != null && !body.dateOfBirth().isEmpty()) {
             try {
@@ -58,7 +64,7 @@ public class AuthController {
             newUser.setDateOfBirth(null);
         }
 
-        userRepository.save(newUser);
+        userService.createUser(newUser);
 
         String token = tokenService.generateToken(newUser);
 
@@ -73,7 +79,9 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<ResponseUserDTO> login(@Valid @RequestBody LoginUserDTO body, HttpServletResponse response) {
-        Optional<User> optionalUser = userRepository.findUserByEmail(body.email());
+        authRateLimiter.checkEmail(body.email());
+
+        Optional<User> optionalUser = userService.findUserByEmail(body.email());
 
         if (optionalUser.isEmpty()) {
             return ResponseEntity.status(404).body(new ResponseUserDTO(false, null, "Email or password is incorrect"));
@@ -81,10 +89,15 @@ public class AuthController {
 
         User user = optionalUser.get();
 
-        if (!passwordEncoder.matches(body.password(), user.getPassword())) {
+        if (!passwordHashingService.matches(body.password(), user.getPassword())) {
             return ResponseEntity.status(401).body(new ResponseUserDTO(false, null, "Email or password is incorrect"));
         }
 
+        passwordHashingService.rehashIfNeeded(body.password(), user.getPassword()).ifPresent(rehashed -> {
+            user.setPassword(rehashed);
+            userService.saveUser(user);
+        });
+
         String token = tokenService.generateToken(user);
 
         Cookie cookie = new Cookie("auth_token", token);
@@ -120,7 +133,7 @@ public class AuthController {
             return ResponseEntity.status(401).body(new ResponseUserDTO(false, null, "Invalid or expired token"));
         }
 
-        Optional<User> optionalUser = userRepository.findUserByEmail(email);
+        Optional<User> optionalUser = userService.findUserByEmail(email);
         if (optionalUser.isEmpty()) {
             return ResponseEntity.status(404).body(new ResponseUserDTO(false, null, "User not found"));
         }
@@ -1,23 +1,45 @@
 package com.smart_money.controller;
 
+import com.smart_money.dto.request.balance.BalanceRange;
+import com.smart_money.dto.response.balance.BalanceRangeDTO;
 import com.smart_money.model.Balance;
 import com.smart_money.service.BalanceService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @RestController
 @RequestMapping("/balance")
 public class BalanceController {
     private final BalanceService balanceService;
+    private final UserDataETags userDataETags;
 
-    public BalanceController(BalanceService balanceService) {
+    public BalanceController(BalanceService balanceService, UserDataETags userDataETags) {
         this.balanceService = balanceService;
+        this.userDataETags = userDataETags;
     }
 
     @GetMapping
-    public Balance getBalance(@RequestParam Long userId) {
+    public Balance getBalance(@RequestParam Long userId, ServletWebRequest request) {
+        if (userDataETags.checkNotModified(request, userId)) return null;
         return balanceService.calculateBalanceByUserId(userId);
     }
+
+    @GetMapping(params = {"from", "to"})
+    public ResponseEntity<BalanceRangeDTO> getBalanceForRange(@RequestParam Long userId,
+                                                              @RequestParam String from,
+                                                              @RequestParam String to,
+                                                              ServletWebRequest request) {
+        BalanceRange range;
+        try {
+            range = BalanceRange.parse(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (userDataETags.checkNotModified(request, userId)) return null;
+        return ResponseEntity.ok(balanceService.calculateBalanceByUserId(userId, range));
+    }
 }
@@ -0,0 +1,25 @@
+package com.smart_money.controller;
+
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.BalanceStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/balance")
+public class BalanceStreamController {
+    private final BalanceStreamService balanceStreamService;
+
+    public BalanceStreamController(BalanceStreamService balanceStreamService) {
+        this.balanceStreamService = balanceStreamService;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance(@AuthenticationPrincipal CustomUserDetails principal) {
+        return balanceStreamService.subscribe(principal.getId());
+    }
+}
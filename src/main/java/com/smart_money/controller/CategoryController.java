@@ -0,0 +1,75 @@
+package com.smart_money.controller;
+
+import com.smart_money.dto.request.balance.BalanceRange;
+import com.smart_money.dto.request.category.CreateCategoryDTO;
+import com.smart_money.dto.request.category.UpdateCategoryDTO;
+import com.smart_money.dto.response.category.CategoryDTO;
+import com.smart_money.dto.response.category.CategorySummaryListDTO;
+import com.smart_money.model.TransactionType;
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.CategoryNotFoundException;
+import com.smart_money.service.CategoryService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/categories")
+public class CategoryController {
+    private final CategoryService categoryService;
+
+    public CategoryController(CategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CategoryDTO>> getCategories(@AuthenticationPrincipal CustomUserDetails principal) {
+        return ResponseEntity.ok(categoryService.findAllCategoriesByOwnerId(principal.getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<CategoryDTO> createCategory(@AuthenticationPrincipal CustomUserDetails principal,
+                                                      @Valid @RequestBody CreateCategoryDTO dto) {
+        return ResponseEntity.ok(categoryService.createCategory(principal.getId(), dto.name()));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<CategoryDTO> updateCategory(@AuthenticationPrincipal CustomUserDetails principal,
+                                                      @PathVariable Long id, @Valid @RequestBody UpdateCategoryDTO dto) {
+        try {
+            return ResponseEntity.ok(categoryService.renameCategory(id, principal.getId(), dto.name()));
+        } catch (CategoryNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteCategory(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        if (categoryService.deleteCategory(id, principal.getId())) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Totals, counts and averages per category of the caller's expenses or incomes within {@code [from, to)}.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<CategorySummaryListDTO> getSummary(@AuthenticationPrincipal CustomUserDetails principal,
+                                                             @RequestParam String type,
+                                                             @RequestParam String from,
+                                                             @RequestParam String to) {
+        TransactionType transactionType;
+        BalanceRange range;
+        try {
+            transactionType = TransactionType.fromPath(type);
+            range = BalanceRange.parse(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(categoryService.summarize(principal.getId(), transactionType, range));
+    }
+}
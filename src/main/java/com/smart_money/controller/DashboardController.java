@@ -0,0 +1,43 @@
+package com.smart_money.controller;
+
+import com.smart_money.dto.response.dashboard.DashboardDTO;
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.DashboardService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+    private final DashboardService dashboardService;
+    private final UserDataETags userDataETags;
+
+    public DashboardController(DashboardService dashboardService, UserDataETags userDataETags) {
+        this.dashboardService = dashboardService;
+        this.userDataETags = userDataETags;
+    }
+
+    /**
+     * Everything the main screen needs in one round trip. A partial payload is marked no-store so it is
+     * never revalidated against the ETag; when no part could be loaded the response is 503.
+     */
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(@AuthenticationPrincipal CustomUserDetails principal,
+                                                     ServletWebRequest request) {
+        if (userDataETags.checkNotModified(request, principal.getId())) return null;
+        DashboardDTO dashboard = dashboardService.loadDashboard(principal.getId());
+        if (!dashboard.isPartial()) {
+            return ResponseEntity.ok(dashboard);
+        }
+        HttpStatus status = dashboard.user() == null && dashboard.balance() == null
+                && dashboard.recentExpenses() == null && dashboard.recentIncomes() == null
+                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK;
+        userDataETags.preventStoring(request);
+        return ResponseEntity.status(status).body(dashboard);
+    }
+}
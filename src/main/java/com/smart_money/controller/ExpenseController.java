@@ -1,16 +1,27 @@
 package com.smart_money.controller;
 
+import com.smart_money.dto.request.bulk.BulkDeleteDTO;
 import com.smart_money.dto.request.expenses.CreateExpenseDTO;
 import com.smart_money.dto.request.expenses.UpdateExpenseDTO;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.request.search.SearchQuery;
+import com.smart_money.dto.response.bulk.BulkDeleteResultDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import com.smart_money.dto.response.expense.ExpenseDTO;
 import com.smart_money.dto.response.expense.ResponseExpenseDTO;
 import com.smart_money.model.Expense;
+import com.smart_money.model.Money;
+import com.smart_money.security.CustomUserDetails;
 import com.smart_money.security.TokenService;
 import com.smart_money.service.ExpenseService;
 import com.smart_money.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -19,56 +30,118 @@ public class ExpenseController {
     private final ExpenseService expenseService;
     private final TokenService tokenService;
     private final UserService userService;
+    private final UserDataETags userDataETags;
 
-    public ExpenseController(ExpenseService expenseService, TokenService tokenService, UserService userService) {
+    public ExpenseController(ExpenseService expenseService, TokenService tokenService, UserService userService,
+                             UserDataETags userDataETags) {
         this.expenseService = expenseService;
         this.tokenService = tokenService;
         this.userService = userService;
+        this.userDataETags = userDataETags;
     }
 
     @GetMapping
-    public ResponseEntity<ResponseExpenseDTO<List<Expense>>> getAllExpenses() {
-        List<Expense> expenses = expenseService.findAllExpenses();
+    public ResponseEntity<ResponseExpenseDTO<List<ExpenseDTO>>> getAllExpenses() {
+        List<ExpenseDTO> expenses = expenseService.findAllExpenses();
         return ResponseEntity.ok(new ResponseExpenseDTO<>(true, expenses, "Expenses fetched successfully"));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<ResponseExpenseDTO<CursorPageDTO<ExpenseDTO>>> getExpensesPage(@RequestParam(required = false) String cursor,
+                                                                                      @RequestParam(required = false) Integer limit,
+                                                                                      @RequestParam(required = false) BigDecimal minValue,
+                                                                                      @RequestParam(required = false) BigDecimal maxValue) {
+        PageQuery query;
+        try {
+            query = PageQuery.forAllOwners(cursor, limit, minValue, maxValue);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ResponseExpenseDTO<>(false, null, e.getMessage()));
+        }
+        CursorPageDTO<ExpenseDTO> page = expenseService.findExpensesPage(query);
+        return ResponseEntity.ok(new ResponseExpenseDTO<>(true, page, "Expenses fetched successfully"));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseExpenseDTO<Expense>> getExpenseById(@PathVariable Long id) {
+    public ResponseEntity<ResponseExpenseDTO<ExpenseDTO>> getExpenseById(@PathVariable Long id) {
         return expenseService.findExpenseById(id)
                 .map(expense -> ResponseEntity.ok(new ResponseExpenseDTO<>(true, expense, "Expense found")))
                 .orElse(ResponseEntity.status(404).body(new ResponseExpenseDTO<>(false, null, "Expense not found")));
     }
 
     @GetMapping("/owner/{ownerId}")
-    public ResponseEntity<ResponseExpenseDTO<List<Expense>>> getExpensesByUserId(@PathVariable Long ownerId) {
-        List<Expense> expenses = expenseService.findAllExpensesByOwnerId(ownerId);
+    public ResponseEntity<ResponseExpenseDTO<List<ExpenseDTO>>> getExpensesByUserId(@PathVariable Long ownerId,
+                                                                                   ServletWebRequest request) {
+        if (userDataETags.checkNotModified(request, ownerId)) return null;
+        List<ExpenseDTO> expenses = expenseService.findAllExpensesByOwnerId(ownerId);
         return ResponseEntity.ok(new ResponseExpenseDTO<>(true, expenses, "Expenses for user fetched successfully"));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ResponseExpenseDTO<CursorPageDTO<ExpenseDTO>>> searchExpenses(@AuthenticationPrincipal CustomUserDetails principal,
+                                                                                     @RequestParam String q,
+                                                                                     @RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(required = false) Integer limit) {
+        SearchQuery query;
+        try {
+            query = SearchQuery.parse(q, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ResponseExpenseDTO<>(false, null, e.getMessage()));
+        }
+        CursorPageDTO<ExpenseDTO> page = expenseService.searchExpenses(principal.getId(), query);
+        return ResponseEntity.ok(new ResponseExpenseDTO<>(true, page, "Expenses found"));
+    }
+
+    @GetMapping("/owner/{ownerId}/page")
+    public ResponseEntity<ResponseExpenseDTO<CursorPageDTO<ExpenseDTO>>> getExpensesPageByUserId(@PathVariable Long ownerId,
+                                                                                              @RequestParam(required = false) String cursor,
+                                                                                              @RequestParam(required = false) Integer limit,
+                                                                                              @RequestParam(required = false) BigDecimal minValue,
+                                                                                              @RequestParam(required = false) BigDecimal maxValue,
+                                                                                              @RequestParam(required = false) String sort) {
+        PageQuery query;
+        try {
+            query = PageQuery.forOwner(cursor, limit, minValue, maxValue, sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ResponseExpenseDTO<>(false, null, e.getMessage()));
+        }
+        CursorPageDTO<ExpenseDTO> page = expenseService.findExpensesPageByOwnerId(ownerId, query);
+        return ResponseEntity.ok(new ResponseExpenseDTO<>(true, page, "Expenses for user fetched successfully"));
+    }
+
     @PostMapping
-    public ResponseEntity<ResponseExpenseDTO<Expense>> createExpense(@PathVariable Long ownerId,@Valid @RequestBody CreateExpenseDTO dto) {
-        return userService.findUserById(ownerId).map(owner -> {
-            Expense expense = new Expense(dto.title(), dto.description(), dto.value(), owner);
-            Expense savedExpense = expenseService.createExpense(expense);
-            return ResponseEntity.ok(new ResponseExpenseDTO<>(true, savedExpense, "Expense created  successfully."));
+    public ResponseEntity<ResponseExpenseDTO<ExpenseDTO>> createExpense(@AuthenticationPrincipal CustomUserDetails principal,
+                                                                        @Valid @RequestBody CreateExpenseDTO dto) {
+        return userService.findUserById(principal.getId()).map(owner -> {
+            Expense expense = new Expense(dto.title(), dto.description(), Money.of(dto.value()), dto.occurredAt(), owner);
+            Expense savedExpense = expenseService.createExpense(expense, dto.categoryId());
+            return ResponseEntity.ok(new ResponseExpenseDTO<>(true, ExpenseDTO.from(savedExpense), "Expense created  successfully."));
         }).orElse(ResponseEntity.badRequest()
                 .body(new ResponseExpenseDTO<>(false, null, "Owner not found.")));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseExpenseDTO<Expense>> updateExpense(@PathVariable Long id, @Valid @RequestBody UpdateExpenseDTO dto) {
-        return expenseService.updateExpense(id, dto)
+    public ResponseEntity<ResponseExpenseDTO<ExpenseDTO>> updateExpense(@AuthenticationPrincipal CustomUserDetails principal,
+                                                                        @PathVariable Long id, @Valid @RequestBody UpdateExpenseDTO dto) {
+        return expenseService.updateExpense(id, principal.getId(), dto)
                 .map(updated -> ResponseEntity.ok(new ResponseExpenseDTO<>(true, updated, "Expense updated successfully")))
                 .orElse(ResponseEntity.notFound()
                         .build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<ResponseExpenseDTO<Void>> deleteExpense (@PathVariable Long id) {
-        boolean deleted = expenseService.deleteExpense(id);
+    public ResponseEntity<ResponseExpenseDTO<Void>> deleteExpense (@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        boolean deleted = expenseService.deleteExpense(id, principal.getId());
         if (deleted) {
             return ResponseEntity.ok(new ResponseExpenseDTO<>(true, null, "Expense deleted successfully"));
         }
         return ResponseEntity.status(404).body(new ResponseExpenseDTO<>(false, null, "Expense not found"));
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<ResponseExpenseDTO<BulkDeleteResultDTO>> deleteExpenses(@AuthenticationPrincipal CustomUserDetails principal,
+                                                                                  @Valid @RequestBody BulkDeleteDTO dto) {
+        long deleted = expenseService.deleteExpenses(dto.ids(), principal.getId());
+        BulkDeleteResultDTO result = new BulkDeleteResultDTO(dto.ids().size(), deleted);
+        return ResponseEntity.ok(new ResponseExpenseDTO<>(true, result, "Expenses deleted successfully"));
     }
+}
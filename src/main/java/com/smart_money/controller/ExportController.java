@@ -0,0 +1,42 @@
+package com.smart_money.controller;
+
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Streams the authenticated user's own transactions.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@AuthenticationPrincipal CustomUserDetails principal,
+                                                                    @RequestParam(required = false) String format) {
+        Long ownerId = principal.getId();
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> exportService.exportTransactions(ownerId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + ownerId + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,72 @@
+package com.smart_money.controller;
+
+import com.smart_money.dto.response.imports.ImportResultDTO;
+import com.smart_money.model.TransactionType;
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.TransactionImportService;
+import com.smart_money.service.UserService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+    private final TransactionImportService importService;
+    private final UserService userService;
+
+    public ImportController(TransactionImportService importService, UserService userService) {
+        this.importService = importService;
+        this.userService = userService;
+    }
+
+    @PostMapping(value = "/{type}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResultDTO> importJson(@AuthenticationPrincipal CustomUserDetails principal,
+                                                      @PathVariable String type, InputStream body) throws IOException {
+        Long ownerId = principal.getId();
+        return importFrom(ownerId, type, transactionType -> importService.importJson(ownerId, transactionType, body));
+    }
+
+    @PostMapping(value = "/{type}", consumes = "text/csv")
+    public ResponseEntity<ImportResultDTO> importCsv(@AuthenticationPrincipal CustomUserDetails principal,
+                                                     @PathVariable String type, InputStream body) throws IOException {
+        Long ownerId = principal.getId();
+        return importFrom(ownerId, type, transactionType -> importService.importCsv(ownerId, transactionType, body));
+    }
+
+    @PostMapping(value = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResultDTO> importCsvFile(@AuthenticationPrincipal CustomUserDetails principal,
+                                                         @PathVariable String type,
+                                                         @RequestParam("file") MultipartFile file) throws IOException {
+        Long ownerId = principal.getId();
+        return importFrom(ownerId, type, transactionType -> {
+            try (InputStream in = file.getInputStream()) {
+                return importService.importCsv(ownerId, transactionType, in);
+            }
+        });
+    }
+
+    /**
+     * Imports into the authenticated user's own transactions only; 400 if that user no longer exists.
+     */
+    private ResponseEntity<ImportResultDTO> importFrom(Long ownerId, String type, Importer importer) throws IOException {
+        if (userService.findUserById(ownerId).isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(importer.run(TransactionType.fromPath(type)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Importer {
+        ImportResultDTO run(TransactionType type) throws IOException;
+    }
+}
@@ -1,54 +1,126 @@
 package com.smart_money.controller;
 
+import com.smart_money.dto.request.bulk.BulkDeleteDTO;
 import com.smart_money.dto.request.income.CreateIncomeDTO;
 import com.smart_money.dto.request.income.UpdateIncomeDTO;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.request.search.SearchQuery;
+import com.smart_money.dto.response.bulk.BulkDeleteResultDTO;
+import com.smart_money.dto.response.income.IncomeDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
 import com.smart_money.model.Income;
+import com.smart_money.model.Money;
+import com.smart_money.security.CustomUserDetails;
 import com.smart_money.service.IncomeService;
+import com.smart_money.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
 @RequestMapping("/incomes")
 public class IncomeController {
     private final IncomeService incomeService;
+    private final UserDataETags userDataETags;
+    private final UserService userService;
 
-    public IncomeController(IncomeService incomeService) {
+    public IncomeController(IncomeService incomeService, UserDataETags userDataETags, UserService userService) {
         this.incomeService = incomeService;
+        this.userDataETags = userDataETags;
+        this.userService = userService;
     }
 
     @GetMapping
-    public List<Income> getAllIncomes() {
+    public List<IncomeDTO> getAllIncomes() {
         return incomeService.findAll();
     }
 
+    @GetMapping("/owner/{ownerId}")
+    public List<IncomeDTO> getIncomesByUserId(@PathVariable Long ownerId, ServletWebRequest request) {
+        if (userDataETags.checkNotModified(request, ownerId)) return null;
+        return incomeService.findAllIncomesByOwnerId(ownerId);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<IncomeDTO>> getIncomesPage(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               @RequestParam(required = false) BigDecimal minValue,
+                                                               @RequestParam(required = false) BigDecimal maxValue) {
+        try {
+            return ResponseEntity.ok(incomeService.findIncomesPage(PageQuery.forAllOwners(cursor, limit, minValue, maxValue)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<IncomeDTO>> searchIncomes(@AuthenticationPrincipal CustomUserDetails principal,
+                                                              @RequestParam String q,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(incomeService.searchIncomes(principal.getId(), SearchQuery.parse(q, cursor, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/owner/{ownerId}/page")
+    public ResponseEntity<CursorPageDTO<IncomeDTO>> getIncomesPageByUserId(@PathVariable Long ownerId,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(required = false) BigDecimal minValue,
+                                                                       @RequestParam(required = false) BigDecimal maxValue,
+                                                                       @RequestParam(required = false) String sort) {
+        try {
+            PageQuery query = PageQuery.forOwner(cursor, limit, minValue, maxValue, sort);
+            return ResponseEntity.ok(incomeService.findIncomesPageByOwnerId(ownerId, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Income> getIncomeById(@PathVariable Long id) {
+    public ResponseEntity<IncomeDTO> getIncomeById(@PathVariable Long id) {
         return incomeService.findIncomeById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Income> createIncome(@Valid @RequestBody CreateIncomeDTO dto) {
-        Income income = incomeService.createIncome(dto);
-        return ResponseEntity.ok(income);
+    public ResponseEntity<IncomeDTO> createIncome(@AuthenticationPrincipal CustomUserDetails principal,
+                                                  @Valid @RequestBody CreateIncomeDTO dto) {
+        return userService.findUserById(principal.getId()).map(owner -> {
+            Income income = new Income(dto.title(), dto.description(), Money.of(dto.value()), dto.occurredAt(), owner);
+            return ResponseEntity.ok(IncomeDTO.from(incomeService.createIncome(income, dto.categoryId())));
+        }).orElse(ResponseEntity.badRequest().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Income> updateIncome(@PathVariable Long id, @Valid @RequestBody UpdateIncomeDTO dto) {
-        return incomeService.updateIncome(id, dto)
+    public ResponseEntity<IncomeDTO> updateIncome(@AuthenticationPrincipal CustomUserDetails principal,
+                                                  @PathVariable Long id, @Valid @RequestBody UpdateIncomeDTO dto) {
+        return incomeService.updateIncome(id, principal.getId(), dto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteIncome(@PathVariable Long id) {
-        if (incomeService.deleteIncome(id)) {
+    public ResponseEntity<Void> deleteIncome(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        if (incomeService.deleteIncome(id, principal.getId())) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResultDTO> deleteIncomes(@AuthenticationPrincipal CustomUserDetails principal,
+                                                             @Valid @RequestBody BulkDeleteDTO dto) {
+        long deleted = incomeService.deleteIncomes(dto.ids(), principal.getId());
+        return ResponseEntity.ok(new BulkDeleteResultDTO(dto.ids().size(), deleted));
+    }
 }
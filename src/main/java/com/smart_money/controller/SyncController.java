@@ -0,0 +1,43 @@
+package com.smart_money.controller;
+
+import com.smart_money.dto.response.sync.SyncDTO;
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.ChangeLogService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+    private final ChangeLogService changeLogService;
+
+    public SyncController(ChangeLogService changeLogService) {
+        this.changeLogService = changeLogService;
+    }
+
+    /**
+     * Without {@code since}, returns only the cursor to start from; clients call this before loading
+     * the full lists, then follow the returned cursor while {@code hasMore} is true.
+     */
+    @GetMapping
+    public ResponseEntity<SyncDTO> sync(@AuthenticationPrincipal CustomUserDetails principal,
+                                        @RequestParam(required = false) String since) {
+        if (since == null) {
+            return ResponseEntity.ok(SyncDTO.empty(changeLogService.currentCursor(principal.getId())));
+        }
+        long cursor;
+        try {
+            cursor = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (cursor < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(changeLogService.changesSince(principal.getId(), cursor));
+    }
+}
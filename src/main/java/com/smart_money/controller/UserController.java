@@ -5,17 +5,20 @@ import com.smart_money.dto.request.user.VerifyPasswordDTO;
 import com.smart_money.dto.response.user.CurrentUserDTO;
 import com.smart_money.dto.response.user.ResponseUserDTO;
 import com.smart_money.model.User;
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.security.PasswordHashingService;
 import com.smart_money.security.TokenService;
 import com.smart_money.service.UserService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -24,24 +27,28 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final TokenService tokenService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserDataETags userDataETags;
 
     private static final String UPLOAD_DIR = "uploads/profiles/";
 
-    public UserController(UserService userService, TokenService tokenService, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager) {
+    public UserController(UserService userService, TokenService tokenService, PasswordHashingService passwordHashingService,
+                          AuthenticationManager authenticationManager, UserDataETags userDataETags) {
         this.userService = userService;
         this.tokenService = tokenService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.authenticationManager = authenticationManager;
+        this.userDataETags = userDataETags;
     }
 
     @GetMapping
@@ -50,35 +57,21 @@ public class UserController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<CurrentUserDTO> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public ResponseEntity<CurrentUserDTO> getCurrentUser(@AuthenticationPrincipal CustomUserDetails principal,
+                                                         ServletWebRequest request) {
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
+        if (userDataETags.checkNotModified(request, principal.getId())) {
+            return null;
+        }
 
-        String userEmail = authentication.getName();
-        Optional<User> optionalUser = userService.findUserByEmail(userEmail);
+        Optional<User> optionalUser = userService.findUserById(principal.getId());
         if (optionalUser.isEmpty()) {
             return ResponseEntity.status(401).build();
         }
 
-        User user = optionalUser.get();
-
-        String dobString = null;
-        if (user.getDateOfBirth() != null) {
-            dobString = user.getDateOfBirth().format(DateTimeFormatter.ISO_LOCAL_DATE);
-        }
-
-        CurrentUserDTO userDTO = new CurrentUserDTO(
-                user.getId(),
-                user.getName(),
-                user.getLastName(),
-                user.getEmail(),
-                dobString,
-                user.getProfileUrl()
-        );
-
-        return ResponseEntity.ok(userDTO);
+        return ResponseEntity.ok(CurrentUserDTO.from(optionalUser.get()));
     }
 
     @GetMapping("/{id}")
@@ -99,7 +92,7 @@ public class UserController {
         User currentUser = optionalUser.get();
 
         if (updateUserDTO.email() != null && !updateUserDTO.email().equals(currentUser.getEmail())
-                && userService.findUserByEmail(updateUserDTO.email()).isPresent()) {
+                && userService.isEmailRegistered(updateUserDTO.email())) {
             return ResponseEntity.status(400).body(new ResponseUserDTO<>(false, null, "Email already registered"));
         }
 
@@ -108,7 +101,7 @@ public class UserController {
             return ResponseEntity.status(400).body(new ResponseUserDTO<>(false, null, "Password must be at least 6 characters long."));
         }
 
-        String encodedPassword = rawPassword != null ? passwordEncoder.encode(rawPassword) : null;
+        String encodedPassword = rawPassword != null ? passwordHashingService.encode(rawPassword) : null;
         UpdateUserDTO updatedDTO = new UpdateUserDTO(
                 updateUserDTO.name(),
                 updateUserDTO.lastName(),
@@ -193,14 +186,13 @@ public class UserController {
     }
 
     @PostMapping("/verify-password")
-    public ResponseEntity<ResponseUserDTO> verifyPassword(@RequestBody VerifyPasswordDTO body) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+    public ResponseEntity<ResponseUserDTO> verifyPassword(@AuthenticationPrincipal CustomUserDetails principal,
+                                                          @RequestBody VerifyPasswordDTO body) {
+        if (principal == null) {
             return ResponseEntity.status(401).body(new ResponseUserDTO(false, null, "Unauthorized"));
         }
 
-        String userEmail = authentication.getName();
-        Optional<User> optionalUser = userService.findUserByEmail(userEmail);
+        Optional<User> optionalUser = userService.findUserById(principal.getId());
 
         if (optionalUser.isEmpty()) {
             return ResponseEntity.status(404).body(new ResponseUserDTO(false, null, "Email or password is incorrect"));
@@ -208,7 +200,7 @@ public class UserController {
 
         User user = optionalUser.get();
 
-        if (!passwordEncoder.matches(body.password(), user.getPassword())) {
+        if (!passwordHashingService.matches(body.password(), user.getPassword())) {
             return ResponseEntity.status(401).body(new ResponseUserDTO(false, null, "Invalid password"));
         }
 
@@ -228,7 +220,7 @@ public class UserController {
             );
             Files.setPosixFilePermissions(path, permissions);
         } catch (UnsupportedOperationException e) {
-            System.out.println(e);
+            log.debug("Leaving default permissions on {}: {}", path, e.getMessage());
         }
     }
 
@@ -242,7 +234,7 @@ public class UserController {
             );
             Files.setPosixFilePermissions(path, permissions);
         } catch (UnsupportedOperationException e) {
-            System.out.println(e);
+            log.debug("Leaving default permissions on {}: {}", path, e.getMessage());
         }
     }
 
@@ -0,0 +1,39 @@
+package com.smart_money.controller;
+
+import com.smart_money.service.UserDataVersionService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Strong ETags derived from the owner's data version. The check runs before any data query, so a
+ * matching If-None-Match is answered with 304 from the in-memory version alone.
+ */
+@Component
+public class UserDataETags {
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+    private static final String NO_STORE = CacheControl.noStore().getHeaderValue();
+
+    private final UserDataVersionService userDataVersionService;
+
+    public UserDataETags(UserDataVersionService userDataVersionService) {
+        this.userDataVersionService = userDataVersionService;
+    }
+
+    public boolean checkNotModified(ServletWebRequest request, Long userId) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(userId + "-" + userDataVersionService.currentVersion(userId));
+    }
+
+    /**
+     * For a response that is not the full state at the tagged version, so it must never be revalidated.
+     */
+    public void preventStoring(ServletWebRequest request) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, NO_STORE);
+        }
+    }
+}
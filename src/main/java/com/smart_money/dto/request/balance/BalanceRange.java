@@ -0,0 +1,38 @@
+package com.smart_money.dto.request.balance;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Half-open {@code [from, to)} range for balance queries. Bounds are ISO dates or date-times; a date-only
+ * {@code to} is inclusive, so {@code from=2024-01-01&to=2024-12-31} covers the whole year in UTC.
+ */
+public record BalanceRange(Instant from, Instant to) {
+
+    public static BalanceRange parse(String from, String to) {
+        Instant start = parseBound(from, false);
+        Instant end = parseBound(to, true);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return new BalanceRange(start, end);
+    }
+
+    private static Instant parseBound(String text, boolean end) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Both 'from' and 'to' are required");
+        }
+        try {
+            if (text.length() == 10) {
+                LocalDate day = LocalDate.parse(text);
+                return (end ? day.plusDays(1) : day).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.smart_money.dto.request.bulk;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkDeleteDTO(@NotEmpty(message = "At least one id is required")
+                            @Size(max = 10000, message = "At most 10000 ids can be deleted per request")
+                            List<@NotNull Long> ids) {
+}
@@ -0,0 +1,9 @@
+package com.smart_money.dto.request.category;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CreateCategoryDTO(@NotBlank(message = "Please, enter name of category")
+                              @Size(max = 50, message = "Name must have at most 50 characters")
+                              String name) {
+}
@@ -1,11 +1,20 @@
 package com.smart_money.dto.request.expenses;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+
 public record CreateExpenseDTO(@NotBlank(message = "Please, enter title of expense.")
                                String title,
                                String description,
+                               @NotNull
                                @Positive(message = "Please, enter positive number.")
-                               double value) {
+                               @Digits(integer = 15, fraction = 2, message = "Value must have at most 2 decimal places")
+                               BigDecimal value,
+                               Instant occurredAt,
+                               Long categoryId) {
 }
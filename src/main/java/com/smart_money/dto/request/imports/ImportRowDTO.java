@@ -0,0 +1,25 @@
+package com.smart_money.dto.request.imports;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record ImportRowDTO(@NotBlank(message = "Title is required")
+                           @Size(max = 255, message = "Title must be at most 255 characters")
+                           String title,
+
+                           @Size(max = 255, message = "Description must be at most 255 characters")
+                           String description,
+
+                           @NotNull(message = "Value is required")
+                           @Positive(message = "Value must be positive")
+                           @Digits(integer = 15, fraction = 2, message = "Value must have at most 2 decimal places")
+                           BigDecimal value,
+
+                           Instant occurredAt) {
+}
@@ -1,10 +1,13 @@
 package com.smart_money.dto.request.income;
 
-import com.smart_money.model.User;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+
 public record CreateIncomeDTO(@NotBlank(message = "Please, enter title of income")
                               String title,
 
@@ -12,9 +15,11 @@ public record CreateIncomeDTO(@NotBlank(message = "Please, enter title of income
 
                               @NotNull
                               @Positive(message = "Value must be positive")
-                              Double value,
+                              @Digits(integer = 15, fraction = 2, message = "Value must have at most 2 decimal places")
+                              BigDecimal value,
 
-                              @NotNull
-                              User owner
+                              Instant occurredAt,
+
+                              Long categoryId
                               ) {
 }
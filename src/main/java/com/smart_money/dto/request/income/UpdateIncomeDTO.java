@@ -1,13 +1,28 @@
 package com.smart_money.dto.request.income;
 
-import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 
-public record UpdateIncomeDTO(@NotBlank(message = "Please, enter title of income")
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Fields left null keep their current value; a title that is sent must not be blank. {@code clearCategory} removes
+ * the category and wins over {@code categoryId}.
+ */
+public record UpdateIncomeDTO(@Pattern(regexp = "(?s).*\\S.*", message = "Please, enter title of income")
                               String title,
 
                               String description,
 
                               @Positive(message = "Value must be positive")
-                              double value) {
+                              @Digits(integer = 15, fraction = 2, message = "Value must have at most 2 decimal places")
+                              BigDecimal value,
+
+                              Instant occurredAt,
+
+                              Long categoryId,
+
+                              boolean clearCategory) {
 }
@@ -0,0 +1,90 @@
+package com.smart_money.dto.request.page;
+
+import com.smart_money.model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Keyset page request over {@code (owner_id, id)}. The cursor is the opaque value returned
+ * as {@code nextCursor} by the previous page: {@code "<id>"} for an owner listing and
+ * {@code "<ownerId>:<id>"} for the listing across all owners.
+ */
+public record PageQuery(Long afterOwnerId,
+                        Long afterId,
+                        int limit,
+                        long minAmountMinor,
+                        long maxAmountMinor,
+                        boolean ascending) {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    public static PageQuery forOwner(String cursor, Integer limit, BigDecimal minValue, BigDecimal maxValue, String sort) {
+        boolean ascending = parseAscending(sort);
+        Long afterId = cursor == null || cursor.isBlank() ? null : parseId(cursor);
+        return new PageQuery(null, afterId, clampLimit(limit), min(minValue), max(minValue, maxValue), ascending);
+    }
+
+    public static PageQuery forAllOwners(String cursor, Integer limit, BigDecimal minValue, BigDecimal maxValue) {
+        Long afterOwnerId = 0L;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid cursor");
+            afterOwnerId = parseId(parts[0]);
+            afterId = parseId(parts[1]);
+        }
+        return new PageQuery(afterOwnerId, afterId, clampLimit(limit), min(minValue), max(minValue, maxValue), true);
+    }
+
+    /**
+     * True for the page a client opens first: newest owner transactions, default size, no filters.
+     */
+    public boolean isDefaultFirstPage() {
+        return afterOwnerId == null && afterId == null && limit == DEFAULT_LIMIT && !ascending
+                && minAmountMinor == Long.MIN_VALUE && maxAmountMinor == Long.MAX_VALUE;
+    }
+
+    public long afterIdOrStart() {
+        if (afterId != null) return afterId;
+        return ascending ? 0L : Long.MAX_VALUE;
+    }
+
+    private static boolean parseAscending(String sort) {
+        if (sort == null || sort.isBlank() || sort.equalsIgnoreCase("newest")) return false;
+        if (sort.equalsIgnoreCase("oldest")) return true;
+        throw new IllegalArgumentException("Sort must be 'newest' or 'oldest'");
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static int clampLimit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static long min(BigDecimal minValue) {
+        return minValue == null ? Long.MIN_VALUE : toMinor(minValue);
+    }
+
+    private static long max(BigDecimal minValue, BigDecimal maxValue) {
+        if (maxValue == null) return Long.MAX_VALUE;
+        if (minValue != null && maxValue.compareTo(minValue) < 0) {
+            throw new IllegalArgumentException("maxValue must be greater than or equal to minValue");
+        }
+        return toMinor(maxValue);
+    }
+
+    private static long toMinor(BigDecimal value) {
+        try {
+            return Money.toMinor(value);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Value out of range");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.smart_money.dto.request.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Search over titles and descriptions. Matches rows where every word of the text matches as a prefix, or,
+ * when there are none, rows similar to the text by trigrams, to tolerate typos. Results are ordered by score,
+ * and the cursor is the opaque {@code "<score>:<id>"} returned as {@code nextCursor} by the previous page.
+ */
+public record SearchQuery(String text,
+                          String tsQuery,
+                          float afterScore,
+                          long afterId,
+                          int limit) {
+    public static final int MIN_LENGTH = 2;
+    public static final int MAX_LENGTH = 100;
+    public static final int MAX_TERMS = 8;
+    public static final float TEXT_SCORE_FLOOR = 2;
+
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    public static SearchQuery parse(String q, String cursor, Integer limit) {
+        String text = q == null ? "" : q.trim().toLowerCase(Locale.ROOT);
+        if (text.length() < MIN_LENGTH || text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Search text must have between " + MIN_LENGTH + " and " + MAX_LENGTH + " characters");
+        }
+
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = TERM.matcher(text);
+        while (matcher.find() && terms.size() < MAX_TERMS) {
+            terms.add(matcher.group() + ":*");
+        }
+        if (terms.isEmpty()) throw new IllegalArgumentException("Search text must contain letters or digits");
+
+        float afterScore = Float.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid cursor");
+            try {
+                afterScore = Float.parseFloat(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        return new SearchQuery(text, String.join(" & ", terms), afterScore, afterId, clampLimit(limit));
+    }
+
+    public boolean isFirstPage() {
+        return afterScore == Float.MAX_VALUE && afterId == Long.MAX_VALUE;
+    }
+
+    /**
+     * Full-text scores start at {@link #TEXT_SCORE_FLOOR} and fuzzy scores never exceed 1, so the cursor
+     * alone tells which of the two result sets a page continues.
+     */
+    public boolean inTextPhase() {
+        return afterScore >= TEXT_SCORE_FLOOR;
+    }
+
+    public static String cursorOf(float score, long id) {
+        return score + ":" + id;
+    }
+
+    private static int clampLimit(Integer limit) {
+        if (limit == null) return 20;
+        return Math.max(1, Math.min(limit, 100));
+    }
+}
@@ -0,0 +1,18 @@
+package com.smart_money.dto.response.balance;
+
+import com.smart_money.model.Balance;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record BalanceRangeDTO(Instant from,
+                              Instant to,
+                              BigDecimal totalIncomes,
+                              BigDecimal totalExpenses,
+                              BigDecimal netBalance,
+                              String currency) {
+    public static BalanceRangeDTO of(Instant from, Instant to, Balance balance) {
+        return new BalanceRangeDTO(from, to, balance.getTotalIncomes(), balance.getTotalExpenses(),
+                balance.getNetBalance(), balance.getCurrency());
+    }
+}
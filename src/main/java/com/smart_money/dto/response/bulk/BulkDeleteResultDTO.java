@@ -0,0 +1,4 @@
+package com.smart_money.dto.response.bulk;
+
+public record BulkDeleteResultDTO(int requested, long deleted) {
+}
@@ -0,0 +1,5 @@
+package com.smart_money.dto.response.category;
+
+public record CategoryDTO(Long id,
+                          String name) {
+}
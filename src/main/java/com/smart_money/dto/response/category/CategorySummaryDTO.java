@@ -0,0 +1,13 @@
+package com.smart_money.dto.response.category;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals of one category for a period; {@code categoryId} and {@code name} are null for uncategorized rows.
+ */
+public record CategorySummaryDTO(Long categoryId,
+                                 String name,
+                                 BigDecimal total,
+                                 long count,
+                                 BigDecimal average) {
+}
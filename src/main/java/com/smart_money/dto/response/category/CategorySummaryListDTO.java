@@ -0,0 +1,13 @@
+package com.smart_money.dto.response.category;
+
+import com.smart_money.model.TransactionType;
+
+import java.time.Instant;
+import java.util.List;
+
+public record CategorySummaryListDTO(TransactionType type,
+                                     Instant from,
+                                     Instant to,
+                                     String currency,
+                                     List<CategorySummaryDTO> categories) {
+}
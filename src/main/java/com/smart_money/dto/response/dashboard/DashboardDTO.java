@@ -0,0 +1,21 @@
+package com.smart_money.dto.response.dashboard;
+
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.income.IncomeDTO;
+import com.smart_money.dto.response.user.CurrentUserDTO;
+import com.smart_money.model.Balance;
+
+import java.util.List;
+
+/**
+ * Parts that could not be loaded in time are null and named in {@code unavailable}.
+ */
+public record DashboardDTO(CurrentUserDTO user,
+                           Balance balance,
+                           List<ExpenseDTO> recentExpenses,
+                           List<IncomeDTO> recentIncomes,
+                           List<String> unavailable) {
+    public boolean isPartial() {
+        return !unavailable.isEmpty();
+    }
+}
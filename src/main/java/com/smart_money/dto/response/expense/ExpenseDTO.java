@@ -0,0 +1,22 @@
+package com.smart_money.dto.response.expense;
+
+import com.smart_money.model.Expense;
+import com.smart_money.model.Money;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+
+public record ExpenseDTO(Long id, String title, String description, BigDecimal value, String currency, Long ownerId,
+                         Instant occurredAt, Long categoryId) {
+    public ExpenseDTO(Long id, String title, String description, long amountMinor, Currency currency, Long ownerId, Instant occurredAt,
+                      Long categoryId) {
+        this(id, title, description, Money.toDecimal(amountMinor, currency), currency.getCurrencyCode(), ownerId, occurredAt, categoryId);
+    }
+
+    public static ExpenseDTO from(Expense expense) {
+        return new ExpenseDTO(expense.getId(), expense.getTitle(), expense.getDescription(), expense.getAmount().getAmountMinor(),
+                expense.getAmount().getCurrency(), expense.getOwner().getId(), expense.getOccurredAt(),
+                expense.getCategory() != null ? expense.getCategory().getId() : null);
+    }
+}
@@ -0,0 +1,4 @@
+package com.smart_money.dto.response.imports;
+
+public record ImportErrorDTO(long row, String message) {
+}
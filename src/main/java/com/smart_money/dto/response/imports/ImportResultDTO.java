@@ -0,0 +1,15 @@
+package com.smart_money.dto.response.imports;
+
+import java.util.List;
+
+/**
+ * {@code stoppedAtRow} is the row a malformed input ended the import at, or null when all of it was read. Rows
+ * before it were imported or rejected as reported; it and every row after it were not imported.
+ */
+public record ImportResultDTO(long imported,
+                              long rejected,
+                              List<ImportErrorDTO> errors,
+                              Long stoppedAtRow,
+                              long elapsedMillis,
+                              double rowsPerSecond) {
+}
@@ -0,0 +1,22 @@
+package com.smart_money.dto.response.income;
+
+import com.smart_money.model.Income;
+import com.smart_money.model.Money;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+
+public record IncomeDTO(Long id, String title, String description, BigDecimal value, String currency, Long ownerId,
+                        Instant occurredAt, Long categoryId) {
+    public IncomeDTO(Long id, String title, String description, long amountMinor, Currency currency, Long ownerId, Instant occurredAt,
+                     Long categoryId) {
+        this(id, title, description, Money.toDecimal(amountMinor, currency), currency.getCurrencyCode(), ownerId, occurredAt, categoryId);
+    }
+
+    public static IncomeDTO from(Income income) {
+        return new IncomeDTO(income.getId(), income.getTitle(), income.getDescription(), income.getAmount().getAmountMinor(),
+                income.getAmount().getCurrency(), income.getOwner().getId(), income.getOccurredAt(),
+                income.getCategory() != null ? income.getCategory().getId() : null);
+    }
+}
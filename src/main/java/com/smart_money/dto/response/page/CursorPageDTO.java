@@ -0,0 +1,8 @@
+package com.smart_money.dto.response.page;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(List<T> items,
+                               String nextCursor,
+                               boolean hasNext) {
+}
@@ -0,0 +1,17 @@
+package com.smart_money.dto.response.sync;
+
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.income.IncomeDTO;
+
+import java.util.List;
+
+public record SyncDTO(List<ExpenseDTO> expenses,
+                      List<IncomeDTO> incomes,
+                      List<TombstoneDTO> deleted,
+                      String cursor,
+                      boolean hasMore) {
+
+    public static SyncDTO empty(long cursor) {
+        return new SyncDTO(List.of(), List.of(), List.of(), String.valueOf(cursor), false);
+    }
+}
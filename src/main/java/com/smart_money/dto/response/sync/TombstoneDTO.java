@@ -0,0 +1,7 @@
+package com.smart_money.dto.response.sync;
+
+import com.smart_money.model.TransactionType;
+
+public record TombstoneDTO(TransactionType type,
+                           Long id) {
+}
@@ -1,4 +1,16 @@
 package com.smart_money.dto.response.user;
 
+import com.smart_money.model.User;
+
+import java.time.format.DateTimeFormatter;
+
 public record CurrentUserDTO(Long id, String name,String lastName, String email, String dateOfBirth, String profileUrl) {
+    public static CurrentUserDTO from(User user) {
+        String dobString = null;
+        if (user.getDateOfBirth() != null) {
+            dobString = user.getDateOfBirth().format(DateTimeFormatter.ISO_LOCAL_DATE);
+        }
+        return new CurrentUserDTO(user.getId(), user.getName(), user.getLastName(), user.getEmail(), dobString,
+                user.getProfileUrl());
+    }
 }
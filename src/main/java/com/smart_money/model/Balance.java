@@ -1,28 +1,33 @@
 package com.smart_money.model;
 
 import java.math.BigDecimal;
+import java.util.Currency;
 
 public class Balance {
-    private BigDecimal totalIncomes;
-    private BigDecimal totalExpenses;
-    private BigDecimal netBalance;
-
-    public Balance(BigDecimal totalIncomes, BigDecimal totalExpenses, BigDecimal netBalance) {
-        this.totalIncomes = totalIncomes;
-        this.totalExpenses = totalExpenses;
-        this.netBalance = netBalance;
+    private final long totalIncomesMinor;
+    private final long totalExpensesMinor;
+    private final Currency currency;
+
+    public Balance(long totalIncomesMinor, long totalExpensesMinor, Currency currency) {
+        this.totalIncomesMinor = totalIncomesMinor;
+        this.totalExpensesMinor = totalExpensesMinor;
+        this.currency = currency;
     }
 
     public BigDecimal getTotalIncomes() {
-        return totalIncomes;
+        return Money.toDecimal(totalIncomesMinor, currency);
     }
 
     public BigDecimal getTotalExpenses() {
-        return totalExpenses;
+        return Money.toDecimal(totalExpensesMinor, currency);
     }
 
     public BigDecimal getNetBalance() {
-        return netBalance;
+        return Money.toDecimal(totalIncomesMinor - totalExpensesMinor, currency);
+    }
+
+    public String getCurrency() {
+        return currency.getCurrencyCode();
     }
 
 }
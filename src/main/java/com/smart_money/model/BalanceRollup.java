@@ -0,0 +1,57 @@
+package com.smart_money.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated incomes and expenses of one owner for a UTC day or month. Kept current by
+ * upserts on every write, and rebuilt from the base tables by {@code BalanceService.rebuildRollups}.
+ */
+@Entity
+@Table(name = "balance_rollups", indexes = @Index(name = "idx_balance_rollups_owner_id_bucket",
+        columnList = "owner_id, granularity, bucket_start"))
+@IdClass(BalanceRollupId.class)
+public class BalanceRollup {
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private RollupGranularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDate bucketStart;
+
+    @Column(name = "incomes_minor", nullable = false)
+    private long incomesMinor;
+
+    @Column(name = "expenses_minor", nullable = false)
+    private long expensesMinor;
+
+    public BalanceRollup() {
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getIncomesMinor() {
+        return incomesMinor;
+    }
+
+    public long getExpensesMinor() {
+        return expensesMinor;
+    }
+}
@@ -0,0 +1,33 @@
+package com.smart_money.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class BalanceRollupId implements Serializable {
+    private Long ownerId;
+    private RollupGranularity granularity;
+    private LocalDate bucketStart;
+
+    public BalanceRollupId() {
+    }
+
+    public BalanceRollupId(Long ownerId, RollupGranularity granularity, LocalDate bucketStart) {
+        this.ownerId = ownerId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BalanceRollupId that)) return false;
+        return Objects.equals(ownerId, that.ownerId) && granularity == that.granularity
+                && Objects.equals(bucketStart, that.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ownerId, granularity, bucketStart);
+    }
+}
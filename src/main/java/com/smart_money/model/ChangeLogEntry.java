@@ -0,0 +1,68 @@
+package com.smart_money.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One insert, update or delete of an owner's expense or income. Entries are written under the owner's
+ * data version lock, so for a given owner their ids grow in commit order and can be used as a sync cursor.
+ */
+@Entity
+@Table(name = "change_log", indexes = @Index(name = "idx_change_log_owner_id_id", columnList = "owner_id, id"))
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 7)
+    private TransactionType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 6)
+    private ChangeOperation operation;
+
+    @Column(name = "changed_at", columnDefinition = "timestamp(6) with time zone default now() not null")
+    private Instant changedAt;
+
+    public ChangeLogEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public TransactionType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public ChangeOperation getOperation() {
+        return operation;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,6 @@
+package com.smart_money.model;
+
+public enum ChangeOperation {
+    UPSERT,
+    DELETE
+}
@@ -0,0 +1,19 @@
+package com.smart_money.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Currency;
+
+@Converter
+public class CurrencyConverter implements AttributeConverter<Currency, String> {
+    @Override
+    public String convertToDatabaseColumn(Currency currency) {
+        return currency == null ? null : currency.getCurrencyCode();
+    }
+
+    @Override
+    public Currency convertToEntityAttribute(String code) {
+        return code == null ? null : Currency.getInstance(code);
+    }
+}
@@ -2,10 +2,17 @@ package com.smart_money.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
 
 @Entity
-@Table(name = "incomes")
+@Table(name = "incomes", indexes = {
+        @Index(name = "idx_incomes_owner_id_id", columnList = "owner_id, id"),
+        @Index(name = "idx_incomes_owner_id_occurred_at", columnList = "owner_id, occurred_at"),
+        @Index(name = "idx_incomes_category_id", columnList = "category_id")
+})
 public class Income {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,23 +23,41 @@ public class Income {
 
     private String description;
 
-    @Positive(message = "Value must be positive")
-    private Double value;
+    @Embedded
+    private Money amount;
+
+    @Column(name = "occurred_at", columnDefinition = "timestamp(6) with time zone default now() not null")
+    private Instant occurredAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private Category category;
+
     public Income() {
     }
 
-    public Income(String title, String description, Double value, User owner) {
+    public Income(String title, String description, Money amount, User owner) {
+        this(title, description, amount, null, owner);
+    }
+
+    public Income(String title, String description, Money amount, Instant occurredAt, User owner) {
         this.title = title;
         this.description = description;
-        this.value = value;
+        this.amount = amount;
+        this.occurredAt = occurredAt;
         this.owner = owner;
     }
 
+    @PrePersist
+    void defaultOccurredAt() {
+        if (occurredAt == null) occurredAt = Instant.now();
+    }
+
     public Long getId() {
         return id;
     }
@@ -57,12 +82,20 @@ public class Income {
         this.description = description;
     }
 
-    public Double getValue() {
-        return value;
+    public Money getAmount() {
+        return amount;
     }
 
-    public void setValue(Double value) {
-        this.value = value;
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
     }
 
     public User getOwner() {
@@ -72,4 +105,12 @@ public class Income {
     public void setOwner(User owner) {
         this.owner = owner;
     }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
 }
@@ -0,0 +1,17 @@
+package com.smart_money.model;
+
+/**
+ * Running sum of amounts in minor units. Works on a primitive only, so feeding it millions of rows
+ * allocates nothing per row; overflow fails loudly instead of wrapping.
+ */
+public final class MinorUnitsSummary {
+    private long sum;
+
+    public void add(long amountMinor) {
+        sum = Math.addExact(sum, amountMinor);
+    }
+
+    public long getSum() {
+        return sum;
+    }
+}
@@ -0,0 +1,91 @@
+package com.smart_money.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Monetary amount stored as a whole number of minor units (cents for USD) plus its currency,
+ * so sums are exact in the database and in memory.
+ */
+@Embeddable
+public class Money {
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Convert(converter = CurrencyConverter.class)
+    @Column(name = "currency", nullable = false, length = 3)
+    private Currency currency;
+
+    protected Money() {
+    }
+
+    private Money(long amountMinor, Currency currency) {
+        this.amountMinor = amountMinor;
+        this.currency = Objects.requireNonNull(currency);
+    }
+
+    public static Money ofMinor(long amountMinor, Currency currency) {
+        return new Money(amountMinor, currency);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(toMinor(amount, currency), currency);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static long toMinor(BigDecimal amount, Currency currency) {
+        return amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return toMinor(amount, DEFAULT_CURRENCY);
+    }
+
+    public static BigDecimal toDecimal(long amountMinor, Currency currency) {
+        return BigDecimal.valueOf(amountMinor, currency.getDefaultFractionDigits());
+    }
+
+    public static BigDecimal toDecimal(long amountMinor) {
+        return toDecimal(amountMinor, DEFAULT_CURRENCY);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toDecimal() {
+        return toDecimal(amountMinor, currency);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money money)) return false;
+        return amountMinor == money.amountMinor && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(amountMinor, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -0,0 +1,12 @@
+package com.smart_money.model;
+
+import java.time.LocalDate;
+
+public enum RollupGranularity {
+    DAY,
+    MONTH;
+
+    public LocalDate bucketStart(LocalDate day) {
+        return this == MONTH ? day.withDayOfMonth(1) : day;
+    }
+}
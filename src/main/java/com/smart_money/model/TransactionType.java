@@ -0,0 +1,23 @@
+package com.smart_money.model;
+
+public enum TransactionType {
+    EXPENSE("expenses"),
+    INCOME("incomes");
+
+    private final String tableName;
+
+    TransactionType(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public static TransactionType fromPath(String value) {
+        for (TransactionType type : values()) {
+            if (type.tableName.equalsIgnoreCase(value)) return type;
+        }
+        throw new IllegalArgumentException("Type must be 'expenses' or 'incomes'");
+    }
+}
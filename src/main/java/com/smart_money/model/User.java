@@ -1,5 +1,6 @@
 package com.smart_money.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -24,6 +25,7 @@ public class User {
     @NotBlank(message = "Email cannot be blank")
     private String email;
 
+    @JsonIgnore
     @NotBlank(message = "Password cannot be blank")
     private String password;
 
@@ -31,6 +33,19 @@ public class User {
 
     private String profileUrl;
 
+    @JsonIgnore
+    @Column(name = "security_stamp", columnDefinition = "bigint default 0 not null")
+    private long securityStamp;
+
+    @JsonIgnore
+    @Column(name = "data_version", columnDefinition = "bigint default 0 not null", insertable = false, updatable = false)
+    private long dataVersion;
+
+    @JsonIgnore
+    @Column(name = "sync_horizon", columnDefinition = "bigint default 0 not null", insertable = false, updatable = false)
+    private long syncHorizon;
+
+    @JsonIgnore
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Expense> expenses;
 
@@ -102,6 +117,22 @@ public class User {
         this.profileUrl = profileUrl;
     }
 
+    public long getSecurityStamp() {
+        return securityStamp;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public long getSyncHorizon() {
+        return syncHorizon;
+    }
+
+    public void rotateSecurityStamp() {
+        this.securityStamp++;
+    }
+
     public List<Expense> getExpenses() {
         return expenses;
     }
@@ -0,0 +1,57 @@
+package com.smart_money.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "balance_ledgers")
+public class UserBalance {
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "total_incomes_minor", nullable = false)
+    private long totalIncomesMinor;
+
+    @Column(name = "total_expenses_minor", nullable = false)
+    private long totalExpensesMinor;
+
+    @Column(name = "net_minor", nullable = false)
+    private long netMinor;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "rollups_ready", columnDefinition = "boolean default false not null")
+    private boolean rollupsReady;
+
+    public UserBalance() {
+    }
+
+    public Balance toBalance() {
+        return new Balance(totalIncomesMinor, totalExpensesMinor, Money.DEFAULT_CURRENCY);
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public long getTotalIncomesMinor() {
+        return totalIncomesMinor;
+    }
+
+    public long getTotalExpensesMinor() {
+        return totalExpensesMinor;
+    }
+
+    public long getNetMinor() {
+        return netMinor;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isRollupsReady() {
+        return rollupsReady;
+    }
+}
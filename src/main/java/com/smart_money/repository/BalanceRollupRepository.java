@@ -0,0 +1,57 @@
+package com.smart_money.repository;
+
+import com.smart_money.model.BalanceRollup;
+import com.smart_money.model.BalanceRollupId;
+import com.smart_money.repository.projection.RollupTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface BalanceRollupRepository extends JpaRepository<BalanceRollup, BalanceRollupId> {
+
+    /**
+     * Adds a delta to the day and month buckets of {@code day}. Skipped until the owner's rollups have been
+     * built, because the rebuild recomputes every bucket from the base tables anyway.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO balance_rollups (owner_id, granularity, bucket_start, incomes_minor, expenses_minor) " +
+            "SELECT :ownerId, b.granularity, b.bucket_start, :incomesDeltaMinor, :expensesDeltaMinor " +
+            "FROM (VALUES ('DAY', CAST(:day AS date)), ('MONTH', CAST(date_trunc('month', CAST(:day AS date)) AS date))) b(granularity, bucket_start) " +
+            "WHERE EXISTS (SELECT 1 FROM balance_ledgers l WHERE l.owner_id = :ownerId AND l.rollups_ready) " +
+            "ON CONFLICT (owner_id, granularity, bucket_start) DO UPDATE SET " +
+            "incomes_minor = balance_rollups.incomes_minor + EXCLUDED.incomes_minor, " +
+            "expenses_minor = balance_rollups.expenses_minor + EXCLUDED.expenses_minor",
+            nativeQuery = true)
+    int addToBuckets(Long ownerId, LocalDate day, long incomesDeltaMinor, long expensesDeltaMinor);
+
+    @Modifying
+    @Query(value = "DELETE FROM balance_rollups WHERE owner_id = :ownerId", nativeQuery = true)
+    int deleteByOwnerId(Long ownerId);
+
+    @Modifying
+    @Query(value = "INSERT INTO balance_rollups (owner_id, granularity, bucket_start, incomes_minor, expenses_minor) " +
+            "SELECT :ownerId, b.granularity, b.bucket_start, SUM(t.incomes_minor), SUM(t.expenses_minor) FROM (" +
+            "SELECT CAST(occurred_at AT TIME ZONE 'UTC' AS date) AS day, amount_minor AS incomes_minor, 0 AS expenses_minor " +
+            "FROM incomes WHERE owner_id = :ownerId " +
+            "UNION ALL " +
+            "SELECT CAST(occurred_at AT TIME ZONE 'UTC' AS date), 0, amount_minor FROM expenses WHERE owner_id = :ownerId) t " +
+            "CROSS JOIN LATERAL (VALUES ('DAY', t.day), ('MONTH', CAST(date_trunc('month', t.day) AS date))) b(granularity, bucket_start) " +
+            "GROUP BY b.granularity, b.bucket_start",
+            nativeQuery = true)
+    int insertFromTransactions(Long ownerId);
+
+    /**
+     * Sums whole months in {@code [monthsFrom, monthsTo)} and whole days in {@code [daysFrom, monthsFrom)} and
+     * {@code [monthsTo, daysTo)}.
+     */
+    @Query("SELECT COALESCE(SUM(r.incomesMinor), 0) AS incomesMinor, COALESCE(SUM(r.expensesMinor), 0) AS expensesMinor " +
+            "FROM BalanceRollup r WHERE r.ownerId = :ownerId AND (" +
+            "(r.granularity = com.smart_money.model.RollupGranularity.MONTH AND r.bucketStart >= :monthsFrom AND r.bucketStart < :monthsTo) " +
+            "OR (r.granularity = com.smart_money.model.RollupGranularity.DAY AND (" +
+            "(r.bucketStart >= :daysFrom AND r.bucketStart < :monthsFrom) OR (r.bucketStart >= :monthsTo AND r.bucketStart < :daysTo))))")
+    RollupTotals sumBuckets(Long ownerId, LocalDate daysFrom, LocalDate monthsFrom, LocalDate monthsTo, LocalDate daysTo);
+}
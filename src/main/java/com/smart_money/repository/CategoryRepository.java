@@ -0,0 +1,22 @@
+package com.smart_money.repository;
+
+import com.smart_money.dto.response.category.CategoryDTO;
+import com.smart_money.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+    Optional<Category> findByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query("SELECT COUNT(c) > 0 FROM Category c WHERE c.owner.id = :ownerId AND lower(c.name) = lower(:name)")
+    boolean existsByOwnerIdAndNameIgnoreCase(Long ownerId, String name);
+
+    @Query("SELECT new com.smart_money.dto.response.category.CategoryDTO(c.id, c.name) " +
+            "FROM Category c WHERE c.owner.id = :ownerId ORDER BY c.name")
+    List<CategoryDTO> findAllViewsByOwnerId(Long ownerId);
+}
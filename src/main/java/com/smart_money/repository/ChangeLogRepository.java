@@ -0,0 +1,45 @@
+package com.smart_money.repository;
+
+import com.smart_money.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO change_log (owner_id, version, entity_type, entity_id, operation, changed_at) " +
+            "SELECT :ownerId, :version, :entityType, t.entity_id, :operation, now() " +
+            "FROM unnest(CAST(:entityIds AS bigint[])) AS t(entity_id)",
+            nativeQuery = true)
+    int insertEntries(Long ownerId, long version, String entityType, String operation, Long[] entityIds);
+
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.ownerId = :ownerId AND c.id > :afterId AND c.version <= :maxVersion " +
+            "ORDER BY c.id")
+    Slice<ChangeLogEntry> findPage(Long ownerId, long afterId, long maxVersion, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ChangeLogEntry c WHERE c.ownerId = :ownerId AND c.version <= :maxVersion")
+    long findLatestId(Long ownerId, long maxVersion);
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.ownerId = :ownerId")
+    int deleteByOwnerId(Long ownerId);
+
+    /**
+     * Deletes up to {@code batchSize} of the oldest entries written before {@code cutoff} and raises each
+     * affected owner's sync horizon to the highest id removed, so older cursors can be told to resync.
+     */
+    @Query(value = "WITH deleted AS (DELETE FROM change_log WHERE id IN " +
+            "(SELECT id FROM change_log WHERE changed_at < :cutoff ORDER BY id LIMIT :batchSize) RETURNING owner_id, id), " +
+            "horizons AS (UPDATE users u SET sync_horizon = GREATEST(u.sync_horizon, d.max_id) " +
+            "FROM (SELECT owner_id, MAX(id) AS max_id FROM deleted GROUP BY owner_id) d WHERE u.id = d.owner_id RETURNING u.id) " +
+            "SELECT COUNT(*) FROM deleted",
+            nativeQuery = true)
+    long compactOlderThan(Instant cutoff, int batchSize);
+}
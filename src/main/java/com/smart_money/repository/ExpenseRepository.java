@@ -1,20 +1,116 @@
 package com.smart_money.repository;
 
+import com.smart_money.dto.response.expense.ExpenseDTO;
 import com.smart_money.model.Expense;
+import com.smart_money.repository.projection.CategoryTotal;
+import com.smart_money.repository.projection.DeletedRow;
+import com.smart_money.repository.projection.OwnerTotal;
+import com.smart_money.repository.projection.SearchRow;
+import com.smart_money.repository.projection.UpdatedRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     Optional<Expense> findById(Long id);
-    List<Expense> findAllByOwnerId(Long ownerId);
 
-    @Query("SELECT SUM(e.value) FROM Expense e WHERE e.owner.id = :ownerId")
-    Optional<BigDecimal> sumByOwnerId(Long ownerId);
+    @Query("SELECT SUM(e.amount.amountMinor) FROM Expense e WHERE e.owner.id = :ownerId")
+    Optional<Long> sumByOwnerId(Long ownerId);
 
+    @Query("SELECT SUM(e.amount.amountMinor) FROM Expense e WHERE e.owner.id = :ownerId AND (" +
+            "(e.occurredAt >= :headFrom AND e.occurredAt < :headTo) OR (e.occurredAt >= :tailFrom AND e.occurredAt < :tailTo))")
+    Optional<Long> sumByOwnerIdWithin(Long ownerId, Instant headFrom, Instant headTo, Instant tailFrom, Instant tailTo);
+
+    @Query("SELECT e.owner.id AS ownerId, SUM(e.amount.amountMinor) AS total FROM Expense e GROUP BY e.owner.id")
+    List<OwnerTotal> sumGroupedByOwner();
+
+    @Query("SELECT c.id AS categoryId, c.name AS name, COUNT(e) AS count, SUM(e.amount.amountMinor) AS totalMinor " +
+            "FROM Expense e LEFT JOIN e.category c WHERE e.owner.id = :ownerId AND e.occurredAt >= :from AND e.occurredAt < :to " +
+            "GROUP BY c.id, c.name ORDER BY SUM(e.amount.amountMinor) DESC")
+    List<CategoryTotal> sumByCategoryWithin(Long ownerId, Instant from, Instant to);
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e WHERE e.id = :id")
+    Optional<ExpenseDTO> findViewById(Long id);
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e WHERE e.owner.id = :ownerId ORDER BY e.id")
+    List<ExpenseDTO> findAllViewsByOwnerId(Long ownerId);
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e WHERE e.owner.id = :ownerId AND e.id IN (:ids)")
+    List<ExpenseDTO> findViewsByOwnerIdAndIdIn(Long ownerId, Collection<Long> ids);
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e ORDER BY e.id")
+    List<ExpenseDTO> findAllViews();
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e WHERE e.owner.id = :ownerId AND e.id > :afterId " +
+            "AND e.amount.amountMinor BETWEEN :minAmountMinor AND :maxAmountMinor ORDER BY e.id ASC")
+    Slice<ExpenseDTO> findPageByOwnerIdAscending(Long ownerId, Long afterId, long minAmountMinor, long maxAmountMinor, Pageable pageable);
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e WHERE e.owner.id = :ownerId AND e.id < :afterId " +
+            "AND e.amount.amountMinor BETWEEN :minAmountMinor AND :maxAmountMinor ORDER BY e.id DESC")
+    Slice<ExpenseDTO> findPageByOwnerIdDescending(Long ownerId, Long afterId, long minAmountMinor, long maxAmountMinor, Pageable pageable);
+
+    @Query("SELECT new com.smart_money.dto.response.expense.ExpenseDTO(e.id, e.title, e.description, e.amount.amountMinor, e.amount.currency, e.owner.id, e.occurredAt, e.category.id) " +
+            "FROM Expense e WHERE (e.owner.id, e.id) > (:afterOwnerId, :afterId) " +
+            "AND e.amount.amountMinor BETWEEN :minAmountMinor AND :maxAmountMinor ORDER BY e.owner.id ASC, e.id ASC")
+    Slice<ExpenseDTO> findPage(Long afterOwnerId, Long afterId, long minAmountMinor, long maxAmountMinor, Pageable pageable);
+
+    @Query(value = "DELETE FROM expenses WHERE owner_id = :ownerId AND id IN (:ids) " +
+            "RETURNING id, CAST(occurred_at AT TIME ZONE 'UTC' AS date) AS day, amount_minor AS amountMinor",
+            nativeQuery = true)
+    List<DeletedRow> deleteByIdsAndOwnerId(Collection<Long> ids, Long ownerId);
+
+    @Query(value = "UPDATE expenses SET category_id = NULL WHERE owner_id = :ownerId AND category_id = :categoryId RETURNING id",
+            nativeQuery = true)
+    List<Long> clearCategory(Long categoryId, Long ownerId);
+
+    /**
+     * Prefix search on the stored {@code search_vector}, scored {@code 2 + ts_rank} so its cursors never collide
+     * with fuzzy ones. Pages continue below {@code (afterScore, afterId)}; see {@code db/migration/V9__search_indexes.sql}.
+     */
+    @Query(value = "SELECT m.id AS id, m.title AS title, m.description AS description, m.amount_minor AS amountMinor, " +
+            "m.currency AS currency, m.owner_id AS ownerId, m.occurred_at AS occurredAt, m.category_id AS categoryId, m.score AS score FROM (" +
+            "SELECT t.*, CAST(2 + ts_rank(t.search_vector, to_tsquery('simple', :tsQuery)) AS real) AS score " +
+            "FROM expenses t WHERE t.owner_id = :ownerId AND t.search_vector @@ to_tsquery('simple', :tsQuery)) m " +
+            "WHERE (m.score, m.id) < (:afterScore, :afterId) ORDER BY m.score DESC, m.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<SearchRow> searchText(Long ownerId, String tsQuery, float afterScore, long afterId, int limit);
+
+    /**
+     * Trigram fallback for typos, scored by word similarity.
+     */
+    @Query(value = "SELECT m.id AS id, m.title AS title, m.description AS description, m.amount_minor AS amountMinor, " +
+            "m.currency AS currency, m.owner_id AS ownerId, m.occurred_at AS occurredAt, m.category_id AS categoryId, m.score AS score FROM (" +
+            "SELECT t.*, CAST(word_similarity(:text, coalesce(t.title, '') || ' ' || coalesce(t.description, '')) AS real) AS score " +
+            "FROM expenses t WHERE t.owner_id = :ownerId AND :text <% (coalesce(t.title, '') || ' ' || coalesce(t.description, ''))) m " +
+            "WHERE (m.score, m.id) < (:afterScore, :afterId) ORDER BY m.score DESC, m.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<SearchRow> searchFuzzy(Long ownerId, String text, float afterScore, long afterId, int limit);
+
+    @Query(value = "UPDATE expenses t SET title = COALESCE(CAST(:title AS varchar), t.title), " +
+            "description = COALESCE(CAST(:description AS varchar), t.description), " +
+            "amount_minor = COALESCE(CAST(:amountMinor AS bigint), t.amount_minor), " +
+            "occurred_at = COALESCE(CAST(:occurredAt AS timestamptz), t.occurred_at), " +
+            "category_id = CASE WHEN :clearCategory THEN NULL ELSE COALESCE(CAST(:categoryId AS bigint), t.category_id) END " +
+            "FROM (SELECT id, amount_minor, occurred_at FROM expenses WHERE id = :id AND owner_id = :ownerId FOR UPDATE) previous " +
+            "WHERE t.id = previous.id " +
+            "RETURNING t.id AS id, t.title AS title, t.description AS description, t.amount_minor AS amountMinor, " +
+            "t.currency AS currency, t.owner_id AS ownerId, t.occurred_at AS occurredAt, t.category_id AS categoryId, " +
+            "previous.amount_minor AS previousAmountMinor, previous.occurred_at AS previousOccurredAt",
+            nativeQuery = true)
+    Optional<UpdatedRow> updateByIdAndOwnerId(Long id, Long ownerId, String title, String description, Long amountMinor,
+                                              Instant occurredAt, Long categoryId, boolean clearCategory);
 }
@@ -0,0 +1,45 @@
+package com.smart_money.repository;
+
+import com.smart_money.model.UserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    @Modifying
+    @Query("UPDATE UserBalance b SET b.totalExpensesMinor = b.totalExpensesMinor + :deltaMinor, " +
+            "b.netMinor = b.netMinor - :deltaMinor, b.version = b.version + 1 WHERE b.ownerId = :ownerId")
+    int addToExpenses(Long ownerId, long deltaMinor);
+
+    @Modifying
+    @Query("UPDATE UserBalance b SET b.totalIncomesMinor = b.totalIncomesMinor + :deltaMinor, " +
+            "b.netMinor = b.netMinor + :deltaMinor, b.version = b.version + 1 WHERE b.ownerId = :ownerId")
+    int addToIncomes(Long ownerId, long deltaMinor);
+
+    @Modifying
+    @Query("UPDATE UserBalance b SET b.totalIncomesMinor = :incomesMinor, b.totalExpensesMinor = :expensesMinor, " +
+            "b.netMinor = :incomesMinor - :expensesMinor, b.version = b.version + 1 WHERE b.ownerId = :ownerId")
+    int resetTotals(Long ownerId, long incomesMinor, long expensesMinor);
+
+    @Modifying
+    @Query(value = "INSERT INTO balance_ledgers (owner_id, total_incomes_minor, total_expenses_minor, net_minor, version) " +
+            "VALUES (:ownerId, 0, 0, 0, 0) ON CONFLICT (owner_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Long ownerId);
+
+    @Query(value = "SELECT owner_id FROM balance_ledgers WHERE owner_id = :ownerId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockByOwnerId(Long ownerId);
+
+    @Modifying
+    @Query("UPDATE UserBalance b SET b.rollupsReady = true WHERE b.ownerId = :ownerId")
+    int markRollupsReady(Long ownerId);
+
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS " +
+            "(SELECT 1 FROM UserBalance b WHERE b.ownerId = u.id AND b.rollupsReady = true) ORDER BY u.id")
+    List<Long> findOwnerIdsWithoutRollups();
+}
@@ -1,13 +1,40 @@
 package com.smart_money.repository;
 
 import com.smart_money.model.User;
+import com.smart_money.repository.projection.SyncState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Read-write, so logins are checked against the primary rather than a replica.
+     */
+    @Transactional
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
     Optional<User> findUserByEmail(String email);
+
+    /**
+     * Read-write, so authentication sees new accounts and rotated security stamps without replica lag.
+     */
+    @Transactional
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findPrimaryById(Long id);
+
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE lower(u.email) = lower(:email)")
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.dataVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findDataVersionById(Long id);
+
+    @Query("SELECT u.dataVersion AS dataVersion, u.syncHorizon AS syncHorizon FROM User u WHERE u.id = :id")
+    Optional<SyncState> findSyncStateById(Long id);
+
+    @Query(value = "UPDATE users SET data_version = data_version + 1 WHERE id = :id RETURNING data_version",
+            nativeQuery = true)
+    Optional<Long> incrementDataVersion(Long id);
 }
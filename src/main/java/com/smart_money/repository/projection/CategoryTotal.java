@@ -0,0 +1,11 @@
+package com.smart_money.repository.projection;
+
+public interface CategoryTotal {
+    Long getCategoryId();
+
+    String getName();
+
+    Long getCount();
+
+    Long getTotalMinor();
+}
@@ -0,0 +1,11 @@
+package com.smart_money.repository.projection;
+
+import java.time.LocalDate;
+
+public interface DeletedRow {
+    Long getId();
+
+    LocalDate getDay();
+
+    Long getAmountMinor();
+}
@@ -0,0 +1,7 @@
+package com.smart_money.repository.projection;
+
+public interface OwnerTotal {
+    Long getOwnerId();
+
+    Long getTotal();
+}
@@ -0,0 +1,23 @@
+package com.smart_money.repository.projection;
+
+import java.time.Instant;
+
+public interface SearchRow {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    Long getAmountMinor();
+
+    String getCurrency();
+
+    Long getOwnerId();
+
+    Instant getOccurredAt();
+
+    Long getCategoryId();
+
+    Float getScore();
+}
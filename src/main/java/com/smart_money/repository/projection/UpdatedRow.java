@@ -0,0 +1,25 @@
+package com.smart_money.repository.projection;
+
+import java.time.Instant;
+
+public interface UpdatedRow {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    Long getAmountMinor();
+
+    String getCurrency();
+
+    Long getOwnerId();
+
+    Instant getOccurredAt();
+
+    Long getCategoryId();
+
+    Long getPreviousAmountMinor();
+
+    Instant getPreviousOccurredAt();
+}
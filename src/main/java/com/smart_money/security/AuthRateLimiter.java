@@ -0,0 +1,68 @@
+package com.smart_money.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the public authentication endpoints per client IP and per normalized email address.
+ */
+@Component
+public class AuthRateLimiter {
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter emailLimiter;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+
+    public AuthRateLimiter(@Value("${security.rate-limit.ip.capacity:30}") int ipCapacity,
+                           @Value("${security.rate-limit.ip.period:1m}") Duration ipPeriod,
+                           @Value("${security.rate-limit.email.capacity:5}") int emailCapacity,
+                           @Value("${security.rate-limit.email.period:1m}") Duration emailPeriod,
+                           @Value("${security.rate-limit.max-keys:1000000}") long maxKeys,
+                           MeterRegistry meterRegistry) {
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipPeriod, maxKeys);
+        this.emailLimiter = new TokenBucketRateLimiter(emailCapacity, emailPeriod, maxKeys);
+        this.ipRejections = Counter.builder("auth.rate_limit.rejections")
+                .description("Authentication requests rejected by the rate limiter")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.emailRejections = Counter.builder("auth.rate_limit.rejections")
+                .description("Authentication requests rejected by the rate limiter")
+                .tag("key", "email")
+                .register(meterRegistry);
+        Gauge.builder("auth.rate_limit.keys", ipLimiter, TokenBucketRateLimiter::estimatedSize)
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.rate_limit.keys", emailLimiter, TokenBucketRateLimiter::estimatedSize)
+                .tag("key", "email")
+                .register(meterRegistry);
+    }
+
+    public void checkIp(String ip) {
+        long waitNanos = ipLimiter.tryAcquire(ip);
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            throw new RateLimitExceededException("Too many requests, try again later", toRetryAfterSeconds(waitNanos));
+        }
+    }
+
+    public void checkEmail(String email) {
+        if (email == null || email.isBlank()) return;
+
+        long waitNanos = emailLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+        if (waitNanos > 0) {
+            emailRejections.increment();
+            throw new RateLimitExceededException("Too many attempts for this account, try again later", toRetryAfterSeconds(waitNanos));
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -1,5 +1,6 @@
 package com.smart_money.security;
 
+import com.smart_money.config.ShardRouter;
 import com.smart_money.model.User;
 import com.smart_money.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,14 +11,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, ShardRouter shardRouter) {
         this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findUserByEmail(email)
+        User user = shardRouter.findFirst(() -> userRepository.findUserByEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return new CustomUserDetails(user);
     }
@@ -0,0 +1,17 @@
+package com.smart_money.security;
+
+/**
+ * Thrown when the password hashing pool cannot accept more work; mapped to 503 with a Retry-After header.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.smart_money.security;
+
+/**
+ * Thrown when a client exceeds an authentication rate limit; mapped to 429 with a Retry-After header.
+ */
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
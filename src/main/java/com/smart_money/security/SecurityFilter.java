@@ -1,5 +1,8 @@
 package com.smart_money.security;
 
+import com.smart_money.config.ShardRouter;
+import com.smart_money.model.User;
+import com.smart_money.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -9,18 +12,38 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     private final TokenService tokenService;
     private final CustomUserDetailsService customUserDetailsService;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ShardRouter shardRouter;
 
-    public SecurityFilter(TokenService tokenService, CustomUserDetailsService customUserDetailsService) {
+    public SecurityFilter(TokenService tokenService, CustomUserDetailsService customUserDetailsService,
+                          UserRepository userRepository, UserCache userCache, ShardRouter shardRouter) {
         this.tokenService = tokenService;
         this.customUserDetailsService = customUserDetailsService;
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : SecurityConfig.PUBLIC_PATHS) {
+            if (PATH_MATCHER.match(pattern, path)) return true;
+        }
+        return false;
     }
 
     @Override
@@ -29,21 +52,40 @@ public class SecurityFilter extends OncePerRequestFilter {
         String token = recoverToken(request);
 
         if (token != null) {
-            String login = tokenService.validateToken(token);
+            tokenService.verify(token)
+                    .flatMap(this::resolveUser)
+                    .ifPresent(userDetails -> {
+                        var authentication = new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities());
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    });
+        }
 
-            if (login != null) {
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(login);
+        filterChain.doFilter(request, response);
+    }
 
-                var authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+    private Optional<UserDetails> resolveUser(TokenService.TokenClaims claims) {
+        if (claims.userId() == null || claims.stamp() == null) {
+            return Optional.of(customUserDetailsService.loadUserByUsername(claims.email()));
         }
 
-        filterChain.doFilter(request, response);
+        Optional<User> user = userCache.get(claims.userId(), this::loadUser);
+        if (user.isPresent() && user.get().getSecurityStamp() < claims.stamp()) {
+            // Stamps only grow, so a token ahead of the cached copy means the stamp was rotated on another
+            // instance; check the database once. Older tokens are rejected without touching the entry.
+            userCache.invalidate(claims.userId());
+            user = userCache.get(claims.userId(), this::loadUser);
+        }
+        return user
+                .filter(u -> u.getSecurityStamp() == claims.stamp())
+                .map(CustomUserDetails::new);
+    }
+
+    private Optional<User> loadUser(Long id) {
+        return shardRouter.readForOwner(id, () -> userRepository.findPrimaryById(id));
     }
 
-    private String recoverToken(HttpServletRequest request) {
+    static String recoverToken(HttpServletRequest request) {
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
             for (Cookie cookie : cookies) {
@@ -54,4 +96,4 @@ public class SecurityFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
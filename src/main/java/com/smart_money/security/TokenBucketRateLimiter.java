@@ -0,0 +1,86 @@
+package com.smart_money.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket keyed by an arbitrary string.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next request
+ * (the GCRA formulation of a token bucket), so acquiring a token is one CAS with no locks or refill timers.
+ * Buckets live in a size-bounded Caffeine cache whose timer wheel drops keys that have been idle for longer
+ * than a full refill, which keeps memory bounded however many distinct keys are seen.
+ */
+public class TokenBucketRateLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier clock;
+
+    public TokenBucketRateLimiter(int capacity, Duration refillPeriod, long maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, Duration refillPeriod, long maxKeys, LongSupplier clock) {
+        if (capacity <= 0 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Rate limit capacity and refill period must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.clock = clock;
+
+        long idleNanos = burstNanos;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new Expiry<String, AtomicLong>() {
+                    @Override
+                    public long expireAfterCreate(String key, AtomicLong value, long currentTime) {
+                        return idleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, AtomicLong value, long currentTime, long currentDuration) {
+                        return idleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, AtomicLong value, long currentTime, long currentDuration) {
+                        return idleNanos;
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 when the request is allowed, otherwise the nanoseconds to wait until a token is available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long arrival = bucket.get();
+            long start = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+            long next = start + emissionIntervalNanos;
+            long waitNanos = next - now - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long estimatedSize() {
+        return buckets.estimatedSize();
+    }
+}
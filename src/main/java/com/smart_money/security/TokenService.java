@@ -1,8 +1,11 @@
 package com.smart_money.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.smart_money.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -10,18 +13,31 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Optional;
 
 @Service
 public class TokenService {
-    @Value("${auth.token}")
-    private String secretKey;
+    private static final String ISSUER = "smart-money";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String STAMP_CLAIM = "stamp";
+
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+
+    public TokenService(@Value("${auth.token}") String secretKey) {
+        this.algorithm = Algorithm.HMAC256(secretKey);
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+    }
 
     public String generateToken(User user) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secretKey);
             return JWT.create()
-                    .withIssuer("smart-money")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
+                    .withClaim(USER_ID_CLAIM, user.getId())
+                    .withClaim(STAMP_CLAIM, user.getSecurityStamp())
                     .withExpiresAt(this.generateExpirationDate())
                     .sign(algorithm);
         } catch (Exception exception) {
@@ -30,19 +46,31 @@ public class TokenService {
     }
 
     public String validateToken(String token) {
+        return verify(token).map(TokenClaims::email).orElse(null);
+    }
+
+    /**
+     * Verifies the signature and expiry of a token and returns its claims. Tokens issued before
+     * the id and stamp claims existed come back with those fields null.
+     */
+    public Optional<TokenClaims> verify(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secretKey);
-            return JWT.require(algorithm)
-                    .withIssuer("smart-money")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT jwt = verifier.verify(token);
+            Claim userId = jwt.getClaim(USER_ID_CLAIM);
+            Claim stamp = jwt.getClaim(STAMP_CLAIM);
+            return Optional.of(new TokenClaims(
+                    jwt.getSubject(),
+                    userId.isMissing() || userId.isNull() ? null : userId.asLong(),
+                    stamp.isMissing() || stamp.isNull() ? null : stamp.asLong()));
         } catch (JWTVerificationException exception) {
-            return null;
+            return Optional.empty();
         }
     }
 
     private Instant generateExpirationDate() {
         return LocalDateTime.now().plusHours(24).toInstant(ZoneOffset.UTC);
     }
+
+    public record TokenClaims(String email, Long userId, Long stamp) {
+    }
 }
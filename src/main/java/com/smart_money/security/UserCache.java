@@ -0,0 +1,44 @@
+package com.smart_money.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smart_money.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of the users behind authenticated requests, so the security filter
+ * does not query the users table on every call. Writes to a user must call {@link #invalidate}.
+ */
+@Component
+public class UserCache {
+    private final Cache<Long, User> users;
+
+    public UserCache(@Value("${security.user-cache.max-size:10000}") long maxSize,
+                     @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Loads outside the cache's lock: a virtual thread blocking on the database inside it would pin its carrier,
+     * and with every carrier pinned the threads holding the pool's connections could never run to return them.
+     */
+    public Optional<User> get(Long userId, Function<Long, Optional<User>> loader) {
+        User cached = users.getIfPresent(userId);
+        if (cached != null) return Optional.of(cached);
+        Optional<User> loaded = loader.apply(userId);
+        loaded.ifPresent(user -> users.asMap().putIfAbsent(userId, user));
+        return loaded;
+    }
+
+    public void invalidate(Long userId) {
+        users.invalidate(userId);
+    }
+}
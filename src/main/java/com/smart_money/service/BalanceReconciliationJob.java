@@ -0,0 +1,100 @@
+package com.smart_money.service;
+
+import com.smart_money.config.CacheConfig;
+import com.smart_money.config.ShardRouter;
+import com.smart_money.model.UserBalance;
+import com.smart_money.repository.ExpenseRepository;
+import com.smart_money.repository.IncomeRepository;
+import com.smart_money.repository.UserBalanceRepository;
+import com.smart_money.repository.projection.OwnerTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rebuilds the per-user running totals from the base tables and reports any drift
+ * between the ledger and the actual sums. A scan of each shard finds the owners whose ledger
+ * looks off; each of them is then checked again and fixed under its ledger row lock in its
+ * own transaction, so writes that commit during the scan are neither reported nor overwritten.
+ */
+@Component
+public class BalanceReconciliationJob {
+    private static final Logger log = LoggerFactory.getLogger(BalanceReconciliationJob.class);
+
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final UserBalanceRepository userBalanceRepository;
+    private final BalanceService balanceService;
+    private final ShardRouter shardRouter;
+    private final CacheManager cacheManager;
+
+    public BalanceReconciliationJob(ExpenseRepository expenseRepository, IncomeRepository incomeRepository,
+                                    UserBalanceRepository userBalanceRepository, BalanceService balanceService,
+                                    ShardRouter shardRouter, CacheManager cacheManager) {
+        this.expenseRepository = expenseRepository;
+        this.incomeRepository = incomeRepository;
+        this.userBalanceRepository = userBalanceRepository;
+        this.balanceService = balanceService;
+        this.shardRouter = shardRouter;
+        this.cacheManager = cacheManager;
+    }
+
+    @Scheduled(cron = "${balance.reconciliation.cron:0 0 3 * * *}")
+    public int reconcile() {
+        int drifted = shardRouter.callOnEveryShard(this::reconcileShard).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        log.info("Balance reconciliation finished, {} ledger(s) corrected", drifted);
+        return drifted;
+    }
+
+    private int reconcileShard() {
+        int drifted = 0;
+        for (Long ownerId : findSuspects()) {
+            if (balanceService.reconcileBalance(ownerId)) {
+                Cache balances = cacheManager.getCache(CacheConfig.BALANCES);
+                if (balances != null) balances.evict(ownerId);
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+
+    private Set<Long> findSuspects() {
+        Map<Long, Long> expenses = toMap(expenseRepository.sumGroupedByOwner());
+        Map<Long, Long> incomes = toMap(incomeRepository.sumGroupedByOwner());
+
+        Set<Long> owners = new HashSet<>(expenses.keySet());
+        owners.addAll(incomes.keySet());
+
+        Set<Long> suspects = new TreeSet<>();
+        for (UserBalance ledger : userBalanceRepository.findAll()) {
+            Long ownerId = ledger.getOwnerId();
+            owners.remove(ownerId);
+            if (ledger.getTotalExpensesMinor() != expenses.getOrDefault(ownerId, 0L)
+                    || ledger.getTotalIncomesMinor() != incomes.getOrDefault(ownerId, 0L)) {
+                suspects.add(ownerId);
+            }
+        }
+        suspects.addAll(owners);
+        return suspects;
+    }
+
+    private static Map<Long, Long> toMap(List<OwnerTotal> totals) {
+        Map<Long, Long> result = new HashMap<>();
+        for (OwnerTotal total : totals) {
+            result.put(total.getOwnerId(), total.getTotal());
+        }
+        return result;
+    }
+}
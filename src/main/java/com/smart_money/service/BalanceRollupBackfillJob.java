@@ -0,0 +1,70 @@
+package com.smart_money.service;
+
+import com.smart_money.config.ShardRouter;
+import com.smart_money.repository.UserBalanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the day and month rollups of every user whose buckets were never computed, e.g. rows that
+ * existed before the rollup table. Each user is rebuilt in its own transaction. The startup run is
+ * asynchronous; balances read before it reaches a user build that user's rollups on demand.
+ */
+@Component
+public class BalanceRollupBackfillJob {
+    private static final Logger log = LoggerFactory.getLogger(BalanceRollupBackfillJob.class);
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final BalanceService balanceService;
+    private final ShardRouter shardRouter;
+    private final boolean backfillOnStartup;
+
+    public BalanceRollupBackfillJob(UserBalanceRepository userBalanceRepository, BalanceService balanceService,
+                                    ShardRouter shardRouter,
+                                    @Value("${balance.rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.userBalanceRepository = userBalanceRepository;
+        this.balanceService = balanceService;
+        this.shardRouter = shardRouter;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    public int backfill() {
+        return shardRouter.callOnEveryShard(this::backfillShard).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private int backfillShard() {
+        List<Long> ownerIds = userBalanceRepository.findOwnerIdsWithoutRollups();
+        if (ownerIds.isEmpty()) return 0;
+
+        long startedAt = System.nanoTime();
+        int rebuilt = 0;
+        for (Long ownerId : ownerIds) {
+            try {
+                balanceService.rebuildRollups(ownerId);
+                rebuilt++;
+            } catch (RuntimeException e) {
+                log.warn("Could not build balance rollups for owner {}", ownerId, e);
+            }
+        }
+        log.info("Built balance rollups for {} of {} owner(s) in {} ms",
+                rebuilt, ownerIds.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        return rebuilt;
+    }
+}
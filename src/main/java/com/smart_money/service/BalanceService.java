@@ -1,27 +1,237 @@
 package com.smart_money.service;
 
+import com.smart_money.config.CacheConfig;
+import com.smart_money.dto.request.balance.BalanceRange;
+import com.smart_money.dto.response.balance.BalanceRangeDTO;
 import com.smart_money.model.Balance;
+import com.smart_money.model.MinorUnitsSummary;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
+import com.smart_money.model.UserBalance;
+import com.smart_money.repository.BalanceRollupRepository;
 import com.smart_money.repository.ExpenseRepository;
 import com.smart_money.repository.IncomeRepository;
+import com.smart_money.repository.UserBalanceRepository;
+import com.smart_money.repository.UserRepository;
+import com.smart_money.repository.projection.RollupTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class BalanceService {
+    private static final Logger log = LoggerFactory.getLogger(BalanceService.class);
+
     private final ExpenseRepository expenseRepository;
     private final IncomeRepository incomeRepository;
+    private final UserBalanceRepository userBalanceRepository;
+    private final BalanceRollupRepository balanceRollupRepository;
+    private final UserRepository userRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BalanceService(ExpenseRepository expenseRepository, IncomeRepository incomeRepository) {
+    public BalanceService(ExpenseRepository expenseRepository, IncomeRepository incomeRepository,
+                          UserBalanceRepository userBalanceRepository, BalanceRollupRepository balanceRollupRepository,
+                          UserRepository userRepository, UserDataVersionService userDataVersionService,
+                          ApplicationEventPublisher eventPublisher) {
         this.expenseRepository = expenseRepository;
         this.incomeRepository = incomeRepository;
+        this.userBalanceRepository = userBalanceRepository;
+        this.balanceRollupRepository = balanceRollupRepository;
+        this.userRepository = userRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Rollup buckets are UTC days and months.
+     */
+    public static LocalDate bucketDay(Instant occurredAt) {
+        return LocalDate.ofInstant(occurredAt, ZoneOffset.UTC);
     }
 
+    @Cacheable(cacheNames = CacheConfig.BALANCES, key = "#userId")
+    @Transactional
     public Balance calculateBalanceByUserId(Long userId) {
-        BigDecimal totalExpenses = expenseRepository.sumByOwnerId(userId).orElse(BigDecimal.ZERO);
-        BigDecimal totalIncomes = incomeRepository.sumByOwnerId(userId).orElse(BigDecimal.ZERO);
-        BigDecimal netBalance = totalIncomes.subtract(totalExpenses);
+        return userBalanceRepository.findById(userId)
+                .map(UserBalance::toBalance)
+                .orElseGet(() -> rebuildBalance(userId));
+    }
+
+    /**
+     * Totals for a time range, read from whole-month and whole-day rollup buckets. Only the partial days at
+     * either end of the range are summed from the expense and income tables.
+     */
+    @Transactional
+    public BalanceRangeDTO calculateBalanceByUserId(Long userId, BalanceRange range) {
+        ensureRollups(userId);
+
+        Instant from = range.from();
+        Instant to = range.to();
+        LocalDate firstFullDay = bucketDay(from);
+        if (firstFullDay.atStartOfDay(ZoneOffset.UTC).toInstant().isBefore(from)) {
+            firstFullDay = firstFullDay.plusDays(1);
+        }
+        LocalDate fullDaysEnd = bucketDay(to);
+
+        Instant headEnd = to;
+        Instant tailStart = to;
+        LocalDate monthsFrom = firstFullDay;
+        LocalDate monthsTo = firstFullDay;
+        LocalDate daysTo = firstFullDay;
+        if (firstFullDay.isBefore(fullDaysEnd)) {
+            headEnd = firstFullDay.atStartOfDay(ZoneOffset.UTC).toInstant();
+            tailStart = fullDaysEnd.atStartOfDay(ZoneOffset.UTC).toInstant();
+            daysTo = fullDaysEnd;
+            monthsFrom = firstFullDay.getDayOfMonth() == 1 ? firstFullDay : firstFullDay.withDayOfMonth(1).plusMonths(1);
+            monthsTo = fullDaysEnd.withDayOfMonth(1);
+            if (!monthsFrom.isBefore(monthsTo)) {
+                monthsFrom = fullDaysEnd;
+                monthsTo = fullDaysEnd;
+            }
+        }
+
+        RollupTotals buckets = balanceRollupRepository.sumBuckets(userId, firstFullDay, monthsFrom, monthsTo, daysTo);
+        long incomes = buckets.getIncomesMinor()
+                + incomeRepository.sumByOwnerIdWithin(userId, from, headEnd, tailStart, to).orElse(0L);
+        long expenses = buckets.getExpensesMinor()
+                + expenseRepository.sumByOwnerIdWithin(userId, from, headEnd, tailStart, to).orElse(0L);
+        return BalanceRangeDTO.of(from, to, new Balance(incomes, expenses, Money.DEFAULT_CURRENCY));
+    }
+
+    @Transactional
+    public void recordChange(TransactionType type, Long ownerId, Instant occurredAt, long deltaMinor) {
+        MinorUnitsSummary delta = new MinorUnitsSummary();
+        delta.add(deltaMinor);
+        recordChanges(type, ownerId, Map.of(bucketDay(occurredAt), delta));
+    }
+
+    /**
+     * Applies per-day deltas to the running totals and to the day and month rollups. The ledger row is
+     * updated first, which serialises writers of the same owner with {@link #rebuildRollups}.
+     * Every write path goes through here, so this is also where the owner's data version is bumped and
+     * {@link TransactionChangedEvent} is published.
+     */
+    @Transactional
+    public void recordChanges(TransactionType type, Long ownerId, Map<LocalDate, MinorUnitsSummary> deltasByDay) {
+        if (deltasByDay.isEmpty()) return;
+        userDataVersionService.bump(ownerId);
+        eventPublisher.publishEvent(new TransactionChangedEvent(ownerId, type));
+
+        Map<LocalDate, MinorUnitsSummary> changed = new TreeMap<>();
+        long totalDelta = 0;
+        for (Map.Entry<LocalDate, MinorUnitsSummary> entry : deltasByDay.entrySet()) {
+            if (entry.getValue().getSum() == 0) continue;
+            changed.put(entry.getKey(), entry.getValue());
+            totalDelta = Math.addExact(totalDelta, entry.getValue().getSum());
+        }
+        if (changed.isEmpty()) return;
+
+        int updated = type == TransactionType.EXPENSE
+                ? userBalanceRepository.addToExpenses(ownerId, totalDelta)
+                : userBalanceRepository.addToIncomes(ownerId, totalDelta);
+        if (updated == 0) {
+            rebuildBalance(ownerId);
+            return;
+        }
+
+        changed.forEach((day, delta) -> {
+            if (type == TransactionType.EXPENSE) {
+                balanceRollupRepository.addToBuckets(ownerId, day, 0, delta.getSum());
+            } else {
+                balanceRollupRepository.addToBuckets(ownerId, day, delta.getSum(), 0);
+            }
+        });
+    }
+
+    /**
+     * Recomputes the running totals of a user from the expense and income tables. The ledger row is created if
+     * missing and locked before the sums are taken, so concurrent first writes neither collide on the insert nor
+     * have their deltas overwritten. Only persisted for existing users, so lookups of unknown ids do not leave
+     * rows behind.
+     */
+    @Transactional
+    public Balance rebuildBalance(Long userId) {
+        boolean persist = userRepository.existsById(userId);
+        if (persist) {
+            userBalanceRepository.insertIfAbsent(userId);
+            userBalanceRepository.lockByOwnerId(userId);
+        }
+        long totalExpenses = expenseRepository.sumByOwnerId(userId).orElse(0L);
+        long totalIncomes = incomeRepository.sumByOwnerId(userId).orElse(0L);
+        if (persist) {
+            userBalanceRepository.resetTotals(userId, totalIncomes, totalExpenses);
+        }
+        return new Balance(totalIncomes, totalExpenses, Money.DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Compares the running totals of a user with the expense and income tables while holding the ledger row
+     * lock, and rebuilds the totals and rollups if they differ. A correction changes what the user's balance reads
+     * return, so it bumps their data version like any write. Returns whether they did; the caller evicts the
+     * cached balance once the transaction has committed.
+     */
+    @Transactional
+    public boolean reconcileBalance(Long userId) {
+        if (userBalanceRepository.lockByOwnerId(userId).isEmpty()) {
+            if (!userRepository.existsById(userId)) return false;
+            log.warn("Missing balance ledger for owner {}, rebuilding", userId);
+            rebuildBalance(userId);
+            return true;
+        }
+        long totalExpenses = expenseRepository.sumByOwnerId(userId).orElse(0L);
+        long totalIncomes = incomeRepository.sumByOwnerId(userId).orElse(0L);
+        UserBalance ledger = userBalanceRepository.findById(userId).orElseThrow();
+        if (ledger.getTotalExpensesMinor() == totalExpenses && ledger.getTotalIncomesMinor() == totalIncomes) {
+            return false;
+        }
+
+        log.warn("Balance drift for owner {} (minor units): ledger incomes={} expenses={}, actual incomes={} expenses={}",
+                userId, ledger.getTotalIncomesMinor(), ledger.getTotalExpensesMinor(), totalIncomes, totalExpenses);
+        userBalanceRepository.resetTotals(userId, totalIncomes, totalExpenses);
+        rebuildRollups(userId);
+        userDataVersionService.bump(userId);
+        return true;
+    }
+
+    /**
+     * Recomputes every day and month bucket of a user while holding the ledger row lock, so writes that
+     * commit meanwhile are applied on top of the rebuilt buckets instead of being lost or counted twice.
+     */
+    @Transactional
+    public void rebuildRollups(Long userId) {
+        if (userBalanceRepository.lockByOwnerId(userId).isEmpty()) {
+            if (!userRepository.existsById(userId)) return;
+            rebuildBalance(userId);
+        }
+        balanceRollupRepository.deleteByOwnerId(userId);
+        balanceRollupRepository.insertFromTransactions(userId);
+        userBalanceRepository.markRollupsReady(userId);
+    }
+
+    private void ensureRollups(Long userId) {
+        boolean ready = userBalanceRepository.findById(userId)
+                .map(UserBalance::isRollupsReady)
+                .orElse(false);
+        if (!ready) {
+            rebuildRollups(userId);
+        }
+    }
 
-        return new Balance(totalIncomes, totalExpenses, netBalance);
+    @CacheEvict(cacheNames = CacheConfig.BALANCES, key = "#userId")
+    @Transactional
+    public void deleteBalance(Long userId) {
+        balanceRollupRepository.deleteByOwnerId(userId);
+        userBalanceRepository.deleteById(userId);
     }
 }
@@ -0,0 +1,218 @@
+package com.smart_money.service;
+
+import com.smart_money.config.ShardRouter;
+import com.smart_money.model.Balance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes balance updates to open Server-Sent Events connections.
+ * <p>
+ * Idle streams are plain async servlet responses and hold no thread. Writes run on a small bounded pool;
+ * each stream has at most one write queued, and updates that arrive while it is pending replace the queued
+ * balance instead of piling up. Streams whose writes fail or cannot be queued are closed so the client
+ * reconnects.
+ */
+@Service
+public class BalanceStreamService {
+    private static final Logger log = LoggerFactory.getLogger(BalanceStreamService.class);
+    private static final Object HEARTBEAT = new Object();
+
+    private final BalanceService balanceService;
+    private final ShardRouter shardRouter;
+    private final ConcurrentHashMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final int maxConnectionsPerUser;
+
+    public BalanceStreamService(BalanceService balanceService, ShardRouter shardRouter, MeterRegistry meterRegistry,
+                                @Value("${balance.stream.timeout:30m}") Duration timeout,
+                                @Value("${balance.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                                @Value("${balance.stream.threads:4}") int threads,
+                                @Value("${balance.stream.queue-capacity:10000}") int queueCapacity,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.balanceService = balanceService;
+        this.shardRouter = shardRouter;
+        this.timeout = timeout;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("balance-stream-", 1).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "balance-stream-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("balance.stream.connections", connections, AtomicInteger::get)
+                .description("Open balance update streams")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(userId, emitter, sequence.incrementAndGet());
+
+        Set<Subscription> userSubscriptions = subscriptions.compute(userId, (id, existing) -> {
+            Set<Subscription> set = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+        connections.incrementAndGet();
+        while (userSubscriptions.size() > maxConnectionsPerUser) {
+            userSubscriptions.stream()
+                    .min(Comparator.comparingLong(Subscription::sequence))
+                    .ifPresent(Subscription::close);
+        }
+
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> remove(subscription));
+
+        submit(() -> subscription.enqueue(shardRouter.callForOwner(userId, () -> balanceService.calculateBalanceByUserId(userId))));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        if (!subscriptions.containsKey(event.ownerId())) return;
+
+        submit(() -> {
+            Set<Subscription> userSubscriptions = subscriptions.get(event.ownerId());
+            if (userSubscriptions == null || userSubscriptions.isEmpty()) return;
+
+            Balance balance = shardRouter.callForOwner(event.ownerId(),
+                    () -> balanceService.calculateBalanceByUserId(event.ownerId()));
+            userSubscriptions.forEach(subscription -> subscription.enqueue(balance));
+        });
+    }
+
+    @Scheduled(fixedRateString = "${balance.stream.heartbeat:25s}")
+    public void sendHeartbeats() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::heartbeat));
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        if (subscription.closed.compareAndSet(false, true)) {
+            connections.decrementAndGet();
+        }
+        subscriptions.computeIfPresent(subscription.userId, (userId, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::close));
+    }
+
+    private final class Subscription {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final long sequence;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscription(Long userId, SseEmitter emitter, long sequence) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.sequence = sequence;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        void enqueue(Balance balance) {
+            pending.set(balance);
+            schedule();
+        }
+
+        void heartbeat() {
+            if (pending.compareAndSet(null, HEARTBEAT)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) return;
+            if (!submit(this::drain)) {
+                log.debug("Balance stream queue is full, closing stream of user {}", userId);
+                close();
+            }
+        }
+
+        /**
+         * Sends the latest pending event. The scheduled flag is only cleared once the send has returned, so two
+         * drains never write to the emitter at once; an event enqueued meanwhile is picked up by rescheduling.
+         */
+        private void drain() {
+            Object next = pending.getAndSet(null);
+            if (next != null && !closed.get()) {
+                try {
+                    if (next == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("balance").data(next, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                }
+            }
+            scheduled.set(false);
+            if (pending.get() != null) {
+                schedule();
+            }
+        }
+
+        void close() {
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed by the container.
+            }
+        }
+    }
+}
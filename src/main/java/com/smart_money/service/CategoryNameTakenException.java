@@ -0,0 +1,12 @@
+package com.smart_money.service;
+
+/**
+ * Thrown when a user already has a category with the requested name, ignoring case; mapped to 409. Also thrown
+ * when a concurrent request takes the name first, after the unique index has rejected the write, so the
+ * transaction rolls back instead of committing.
+ */
+public class CategoryNameTakenException extends RuntimeException {
+    public CategoryNameTakenException(String name) {
+        super("Category " + name + " already exists");
+    }
+}
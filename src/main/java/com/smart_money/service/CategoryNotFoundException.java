@@ -0,0 +1,11 @@
+package com.smart_money.service;
+
+/**
+ * Thrown when an expense or income refers to a category that does not exist or belongs to another user;
+ * mapped to 400.
+ */
+public class CategoryNotFoundException extends RuntimeException {
+    public CategoryNotFoundException(Long categoryId) {
+        super("Category " + categoryId + " not found");
+    }
+}
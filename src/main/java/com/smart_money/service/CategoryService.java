@@ -0,0 +1,145 @@
+package com.smart_money.service;
+
+import com.smart_money.dto.request.balance.BalanceRange;
+import com.smart_money.dto.response.category.CategoryDTO;
+import com.smart_money.dto.response.category.CategorySummaryDTO;
+import com.smart_money.dto.response.category.CategorySummaryListDTO;
+import com.smart_money.model.Category;
+import com.smart_money.model.ChangeOperation;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
+import com.smart_money.repository.CategoryRepository;
+import com.smart_money.repository.ExpenseRepository;
+import com.smart_money.repository.IncomeRepository;
+import com.smart_money.repository.UserRepository;
+import com.smart_money.repository.projection.CategoryTotal;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class CategoryService {
+    private final CategoryRepository categoryRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final UserRepository userRepository;
+    private final ChangeLogService changeLogService;
+    private final UserDataVersionService userDataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryService(CategoryRepository categoryRepository, ExpenseRepository expenseRepository,
+                           IncomeRepository incomeRepository, UserRepository userRepository,
+                           ChangeLogService changeLogService, UserDataVersionService userDataVersionService,
+                           ApplicationEventPublisher eventPublisher) {
+        this.categoryRepository = categoryRepository;
+        this.expenseRepository = expenseRepository;
+        this.incomeRepository = incomeRepository;
+        this.userRepository = userRepository;
+        this.changeLogService = changeLogService;
+        this.userDataVersionService = userDataVersionService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<CategoryDTO> findAllCategoriesByOwnerId(Long ownerId) {
+        return categoryRepository.findAllViewsByOwnerId(ownerId);
+    }
+
+    /**
+     * Returns the owner's category, or null for a null id, so callers can assign it as is.
+     */
+    public Category requireOwnedCategory(Long categoryId, Long ownerId) {
+        if (categoryId == null) return null;
+        return categoryRepository.findByIdAndOwnerId(categoryId, ownerId)
+                .orElseThrow(() -> new CategoryNotFoundException(categoryId));
+    }
+
+    /**
+     * Throws {@link CategoryNameTakenException} when the owner already has a category with the same name,
+     * ignoring case.
+     */
+    @Transactional
+    public CategoryDTO createCategory(Long ownerId, String name) {
+        String trimmed = name.trim();
+        if (categoryRepository.existsByOwnerIdAndNameIgnoreCase(ownerId, trimmed)) {
+            throw new CategoryNameTakenException(trimmed);
+        }
+        Category saved;
+        try {
+            saved = categoryRepository.saveAndFlush(new Category(trimmed, userRepository.getReferenceById(ownerId)));
+        } catch (DataIntegrityViolationException e) {
+            throw new CategoryNameTakenException(trimmed);
+        }
+        userDataVersionService.bump(ownerId);
+        return new CategoryDTO(saved.getId(), saved.getName());
+    }
+
+    /**
+     * Throws {@link CategoryNotFoundException} for a missing category and {@link CategoryNameTakenException} when
+     * the new name is taken.
+     */
+    @Transactional
+    public CategoryDTO renameCategory(Long id, Long ownerId, String name) {
+        Category category = requireOwnedCategory(id, ownerId);
+        String trimmed = name.trim();
+        if (!category.getName().equalsIgnoreCase(trimmed)
+                && categoryRepository.existsByOwnerIdAndNameIgnoreCase(ownerId, trimmed)) {
+            throw new CategoryNameTakenException(trimmed);
+        }
+        category.setName(trimmed);
+        try {
+            categoryRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new CategoryNameTakenException(trimmed);
+        }
+        userDataVersionService.bump(ownerId);
+        return new CategoryDTO(category.getId(), category.getName());
+    }
+
+    /**
+     * Rows of the deleted category become uncategorized. They are cleared here rather than by the
+     * foreign key so they reach the change feed and the cached first pages are evicted.
+     */
+    @Transactional
+    public boolean deleteCategory(Long id, Long ownerId) {
+        Optional<Category> category = categoryRepository.findByIdAndOwnerId(id, ownerId);
+        if (category.isEmpty()) return false;
+        List<Long> expenseIds = expenseRepository.clearCategory(id, ownerId);
+        List<Long> incomeIds = incomeRepository.clearCategory(id, ownerId);
+        recordCleared(TransactionType.EXPENSE, ownerId, expenseIds);
+        recordCleared(TransactionType.INCOME, ownerId, incomeIds);
+        categoryRepository.delete(category.get());
+        userDataVersionService.bump(ownerId);
+        return true;
+    }
+
+    /**
+     * Totals per category computed by one grouped query; amounts are summed in minor units so totals
+     * and averages are exact.
+     */
+    @Transactional(readOnly = true)
+    public CategorySummaryListDTO summarize(Long ownerId, TransactionType type, BalanceRange range) {
+        List<CategoryTotal> totals = type == TransactionType.EXPENSE
+                ? expenseRepository.sumByCategoryWithin(ownerId, range.from(), range.to())
+                : incomeRepository.sumByCategoryWithin(ownerId, range.from(), range.to());
+        List<CategorySummaryDTO> categories = totals.stream()
+                .map(total -> {
+                    BigDecimal sum = Money.toDecimal(total.getTotalMinor());
+                    BigDecimal average = sum.divide(BigDecimal.valueOf(total.getCount()), RoundingMode.HALF_EVEN);
+                    return new CategorySummaryDTO(total.getCategoryId(), total.getName(), sum, total.getCount(), average);
+                })
+                .toList();
+        return new CategorySummaryListDTO(type, range.from(), range.to(), Money.DEFAULT_CURRENCY.getCurrencyCode(), categories);
+    }
+
+    private void recordCleared(TransactionType type, Long ownerId, List<Long> ids) {
+        if (ids.isEmpty()) return;
+        changeLogService.record(type, ChangeOperation.UPSERT, ownerId, ids);
+        eventPublisher.publishEvent(new TransactionChangedEvent(ownerId, type));
+    }
+}
@@ -0,0 +1,65 @@
+package com.smart_money.service;
+
+import com.smart_money.config.ShardRouter;
+import com.smart_money.repository.ChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Drops change log entries older than the retention window, one batch per transaction. Clients whose
+ * cursor falls behind the removed entries get a 410 from {@code /sync} and reload their full state.
+ * Shards are compacted concurrently.
+ */
+@Component
+public class ChangeLogCompactionJob {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogCompactionJob.class);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration retention;
+    private final int batchSize;
+
+    public ChangeLogCompactionJob(ChangeLogRepository changeLogRepository, PlatformTransactionManager transactionManager,
+                                  ShardRouter shardRouter,
+                                  @Value("${sync.change-log.retention:30d}") Duration retention,
+                                  @Value("${sync.compaction.batch-size:5000}") int batchSize) {
+        this.changeLogRepository = changeLogRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${sync.compaction.cron:0 30 3 * * *}")
+    public long compact() {
+        Instant cutoff = Instant.now().minus(retention);
+        long total = shardRouter.callOnEveryShard(() -> compactShard(cutoff)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+
+        if (total > 0) {
+            log.info("Change log compaction removed {} entries older than {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private long compactShard(Instant cutoff) {
+        long total = 0;
+        long deleted;
+        do {
+            Long batch = transactionTemplate.execute(status -> changeLogRepository.compactOlderThan(cutoff, batchSize));
+            deleted = batch != null ? batch : 0;
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
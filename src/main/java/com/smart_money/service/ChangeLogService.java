@@ -0,0 +1,138 @@
+package com.smart_money.service;
+
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.income.IncomeDTO;
+import com.smart_money.dto.response.sync.SyncDTO;
+import com.smart_money.dto.response.sync.TombstoneDTO;
+import com.smart_money.model.ChangeLogEntry;
+import com.smart_money.model.ChangeOperation;
+import com.smart_money.model.TransactionType;
+import com.smart_money.repository.ChangeLogRepository;
+import com.smart_money.repository.ExpenseRepository;
+import com.smart_money.repository.IncomeRepository;
+import com.smart_money.repository.UserRepository;
+import com.smart_money.repository.projection.SyncState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-owner feed of inserts, updates and deletes of expenses and incomes. Entries carry the owner's data
+ * version; a read only returns entries up to the version committed when it started, so a cursor never
+ * moves past a write that is still in flight.
+ */
+@Service
+public class ChangeLogService {
+    private final ChangeLogRepository changeLogRepository;
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final UserDataVersionService userDataVersionService;
+    private final int pageSize;
+
+    public ChangeLogService(ChangeLogRepository changeLogRepository, UserRepository userRepository,
+                            ExpenseRepository expenseRepository, IncomeRepository incomeRepository,
+                            UserDataVersionService userDataVersionService,
+                            @Value("${sync.page-size:1000}") int pageSize) {
+        this.changeLogRepository = changeLogRepository;
+        this.userRepository = userRepository;
+        this.expenseRepository = expenseRepository;
+        this.incomeRepository = incomeRepository;
+        this.userDataVersionService = userDataVersionService;
+        this.pageSize = pageSize;
+    }
+
+    @Transactional
+    public void record(TransactionType type, ChangeOperation operation, Long ownerId, Collection<Long> entityIds) {
+        if (entityIds.isEmpty()) return;
+        long version = userDataVersionService.bump(ownerId);
+        changeLogRepository.insertEntries(ownerId, version, type.name(), operation.name(), entityIds.toArray(Long[]::new));
+    }
+
+    @Transactional
+    public void deleteByOwnerId(Long ownerId) {
+        changeLogRepository.deleteByOwnerId(ownerId);
+    }
+
+    /**
+     * Cursor to start syncing from after loading the full lists. Changes committed in between are
+     * returned again by the first sync, which is harmless because applying them is idempotent.
+     */
+    public long currentCursor(Long ownerId) {
+        return userRepository.findSyncStateById(ownerId)
+                .map(state -> Math.max(changeLogRepository.findLatestId(ownerId, state.getDataVersion()), state.getSyncHorizon()))
+                .orElse(0L);
+    }
+
+    public SyncDTO changesSince(Long ownerId, long since) {
+        Optional<SyncState> state = userRepository.findSyncStateById(ownerId);
+        if (state.isEmpty()) return SyncDTO.empty(since);
+        if (since < state.get().getSyncHorizon()) {
+            throw new SyncCursorExpiredException("Sync cursor has expired, reload the full state.");
+        }
+
+        Slice<ChangeLogEntry> page = changeLogRepository.findPage(ownerId, since, state.get().getDataVersion(),
+                PageRequest.ofSize(pageSize));
+        if (page.isEmpty()) return SyncDTO.empty(since);
+
+        Map<TransactionType, Map<Long, ChangeOperation>> latest = new EnumMap<>(TransactionType.class);
+        for (ChangeLogEntry entry : page) {
+            latest.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+                    .put(entry.getEntityId(), entry.getOperation());
+        }
+
+        List<TombstoneDTO> deleted = new ArrayList<>();
+        List<ExpenseDTO> expenses = loadUpserts(TransactionType.EXPENSE, latest, deleted,
+                ids -> expenseRepository.findViewsByOwnerIdAndIdIn(ownerId, ids), ExpenseDTO::id);
+        List<IncomeDTO> incomes = loadUpserts(TransactionType.INCOME, latest, deleted,
+                ids -> incomeRepository.findViewsByOwnerIdAndIdIn(ownerId, ids), IncomeDTO::id);
+
+        List<ChangeLogEntry> entries = page.getContent();
+        long cursor = entries.get(entries.size() - 1).getId();
+        return new SyncDTO(expenses, incomes, deleted, String.valueOf(cursor), page.hasNext());
+    }
+
+    /**
+     * Loads the current rows of the entities whose latest change is an upsert. Rows that no longer exist
+     * were deleted after this page was read; they are reported as tombstones, and the delete itself
+     * arrives with a later sync.
+     */
+    private static <T> List<T> loadUpserts(TransactionType type, Map<TransactionType, Map<Long, ChangeOperation>> latest,
+                                           List<TombstoneDTO> deleted,
+                                           Function<Collection<Long>, List<T>> loader,
+                                           Function<T, Long> idOf) {
+        Map<Long, ChangeOperation> changes = latest.getOrDefault(type, Map.of());
+        List<Long> upserted = new ArrayList<>();
+        changes.forEach((id, operation) -> {
+            if (operation == ChangeOperation.UPSERT) {
+                upserted.add(id);
+            } else {
+                deleted.add(new TombstoneDTO(type, id));
+            }
+        });
+        if (upserted.isEmpty()) return List.of();
+
+        List<T> rows = loader.apply(upserted);
+        if (rows.size() < upserted.size()) {
+            Set<Long> found = new HashSet<>();
+            rows.forEach(row -> found.add(idOf.apply(row)));
+            upserted.stream()
+                    .filter(id -> !found.contains(id))
+                    .forEach(id -> deleted.add(new TombstoneDTO(type, id)));
+        }
+        return rows;
+    }
+}
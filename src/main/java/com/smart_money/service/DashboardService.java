@@ -0,0 +1,141 @@
+package com.smart_money.service;
+
+import com.smart_money.config.ShardContext;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.response.dashboard.DashboardDTO;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.income.IncomeDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import com.smart_money.dto.response.user.CurrentUserDTO;
+import com.smart_money.model.Balance;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the parts of the main screen concurrently on a dedicated, size-bounded pool. All parts share one
+ * deadline; a part that fails, misses it or is shed because the pool is full is left out of the result
+ * instead of failing the whole response. With virtual threads enabled the pool runs on virtual threads,
+ * still capped at {@code dashboard.threads} concurrent parts.
+ */
+@Service
+public class DashboardService {
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private final UserService userService;
+    private final BalanceService balanceService;
+    private final ExpenseService expenseService;
+    private final IncomeService incomeService;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final int recentLimit;
+
+    public DashboardService(UserService userService, BalanceService balanceService,
+                            ExpenseService expenseService, IncomeService incomeService,
+                            @Value("${dashboard.threads:16}") int threads,
+                            @Value("${dashboard.queue-capacity:256}") int queueCapacity,
+                            @Value("${dashboard.timeout:2s}") Duration timeout,
+                            @Value("${dashboard.recent-limit:10}") int recentLimit,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.userService = userService;
+        this.balanceService = balanceService;
+        this.expenseService = expenseService;
+        this.incomeService = incomeService;
+        this.timeout = timeout;
+        this.recentLimit = Math.max(1, Math.min(recentLimit, PageQuery.DEFAULT_LIMIT));
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("dashboard-", 1).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Recent transactions are cut from the cached default first page, so a warm dashboard costs a single
+     * user lookup.
+     */
+    public DashboardDTO loadDashboard(Long userId) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        PageQuery firstPage = PageQuery.forOwner(null, null, null, null, null);
+
+        Future<CurrentUserDTO> user = submit(() -> userService.findUserById(userId).map(CurrentUserDTO::from).orElse(null));
+        Future<Balance> balance = submit(() -> balanceService.calculateBalanceByUserId(userId));
+        Future<List<ExpenseDTO>> expenses = submit(() -> recent(expenseService.findExpensesPageByOwnerId(userId, firstPage)));
+        Future<List<IncomeDTO>> incomes = submit(() -> recent(incomeService.findIncomesPageByOwnerId(userId, firstPage)));
+
+        List<String> unavailable = new ArrayList<>();
+        return new DashboardDTO(
+                await(user, "user", deadline, unavailable),
+                await(balance, "balance", deadline, unavailable),
+                await(expenses, "recentExpenses", deadline, unavailable),
+                await(incomes, "recentIncomes", deadline, unavailable),
+                List.copyOf(unavailable));
+    }
+
+    private <T> List<T> recent(CursorPageDTO<T> page) {
+        List<T> items = page.items();
+        return items.size() > recentLimit ? List.copyOf(items.subList(0, recentLimit)) : items;
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            // Carries the caller's authentication and shard, so the parts honour its read-your-writes window
+            // and read the caller's database.
+            return executor.submit(DelegatingSecurityContextCallable.create(ShardContext.wrap(task),
+                    SecurityContextHolder.getContext()));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> T await(Future<T> future, String part, long deadline, List<String> unavailable) {
+        if (future == null) {
+            log.warn("Dashboard part {} shed, pool is full", part);
+            unavailable.add(part);
+            return null;
+        }
+        try {
+            T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (value == null) unavailable.add(part);
+            return value;
+        } catch (TimeoutException e) {
+            log.warn("Dashboard part {} timed out after {}", part, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Dashboard part {} failed", part, e.getCause());
+        }
+        future.cancel(true);
+        unavailable.add(part);
+        return null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,10 @@
+package com.smart_money.service;
+
+/**
+ * Thrown when a user would take an email address that another user already holds; mapped to 400.
+ */
+public class EmailAlreadyRegisteredException extends RuntimeException {
+    public EmailAlreadyRegisteredException() {
+        super("Email already registered");
+    }
+}
@@ -1,58 +1,185 @@
 package com.smart_money.service;
 
+import com.smart_money.config.CacheConfig;
+import com.smart_money.config.ShardRouter;
 import com.smart_money.dto.request.expenses.UpdateExpenseDTO;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.request.search.SearchQuery;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import com.smart_money.model.ChangeOperation;
 import com.smart_money.model.Expense;
+import com.smart_money.model.MinorUnitsSummary;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
 import com.smart_money.model.User;
 import com.smart_money.repository.ExpenseRepository;
+import com.smart_money.repository.projection.DeletedRow;
+import com.smart_money.repository.projection.SearchRow;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ExpenseService {
+    private static final int DELETE_CHUNK_SIZE = 1000;
 
     private final ExpenseRepository expenseRepository;
+    private final BalanceService balanceService;
+    private final ChangeLogService changeLogService;
+    private final CategoryService categoryService;
+    private final ShardRouter shardRouter;
 
-    public ExpenseService(ExpenseRepository expenseRepository) {
+    public ExpenseService(ExpenseRepository expenseRepository, BalanceService balanceService, ChangeLogService changeLogService,
+                         CategoryService categoryService, ShardRouter shardRouter) {
         this.expenseRepository = expenseRepository;
+        this.balanceService = balanceService;
+        this.changeLogService = changeLogService;
+        this.categoryService = categoryService;
+        this.shardRouter = shardRouter;
     }
 
-    public List<Expense> findAllExpenses() {
-        return expenseRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<ExpenseDTO> findAllExpenses() {
+        return shardRouter.callOnEveryShard(expenseRepository::findAllViews).stream()
+                .flatMap(List::stream)
+                .toList();
     }
 
-    public Optional<Expense> findExpenseById(Long id) {
-        return expenseRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<ExpenseDTO> findExpenseById(Long id) {
+        return shardRouter.findFirst(() -> expenseRepository.findViewById(id));
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findExpenseOwnerByExpenseId(Long expenseId) {
-        return expenseRepository.findById(expenseId)
+        return shardRouter.findFirst(() -> expenseRepository.findById(expenseId))
                 .map(Expense::getOwner);
     }
 
-    public List<Expense> findAllExpensesByOwnerId(Long ownerId) {
-        return expenseRepository.findAllByOwnerId(ownerId);
+    @Transactional(readOnly = true)
+    public List<ExpenseDTO> findAllExpensesByOwnerId(Long ownerId) {
+        return expenseRepository.findAllViewsByOwnerId(ownerId);
     }
 
-    public Expense createExpense(Expense expense) {
-        return expenseRepository.save(expense);
+    @Cacheable(cacheNames = CacheConfig.EXPENSE_FIRST_PAGES, key = "#ownerId", condition = "#query.isDefaultFirstPage()")
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> findExpensesPageByOwnerId(Long ownerId, PageQuery query) {
+        PageRequest pageRequest = PageRequest.ofSize(query.limit());
+        Slice<ExpenseDTO> slice = query.ascending()
+                ? expenseRepository.findPageByOwnerIdAscending(ownerId, query.afterIdOrStart(), query.minAmountMinor(), query.maxAmountMinor(), pageRequest)
+                : expenseRepository.findPageByOwnerIdDescending(ownerId, query.afterIdOrStart(), query.minAmountMinor(), query.maxAmountMinor(), pageRequest);
+        List<ExpenseDTO> items = slice.getContent();
+        String nextCursor = slice.hasNext() ? String.valueOf(items.get(items.size() - 1).id()) : null;
+        return new CursorPageDTO<>(items, nextCursor, slice.hasNext());
     }
 
-    public Optional<Expense> updateExpense(Long id, UpdateExpenseDTO dto) {
-        return expenseRepository.findById(id).map(existingExpense -> {
-            if (dto.title() != null) existingExpense.setTitle(dto.title());
-            if (dto.description() != null) existingExpense.setDescription(dto.description());
-            if (dto.value() != null && dto.value() > 0) existingExpense.setValue(dto.value());
-            return expenseRepository.save(existingExpense);
+    /**
+     * Every shard returns its own next page; the lowest (owner, id) keys among them make up this page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> findExpensesPage(PageQuery query) {
+        List<Slice<ExpenseDTO>> slices = shardRouter.callOnEveryShard(() -> expenseRepository.findPage(query.afterOwnerId(),
+                query.afterIdOrStart(), query.minAmountMinor(), query.maxAmountMinor(), PageRequest.ofSize(query.limit())));
+        List<ExpenseDTO> merged = slices.stream()
+                .flatMap(slice -> slice.getContent().stream())
+                .sorted(Comparator.comparing(ExpenseDTO::ownerId).thenComparing(ExpenseDTO::id))
+                .toList();
+        boolean hasNext = merged.size() > query.limit() || slices.stream().anyMatch(Slice::hasNext);
+        List<ExpenseDTO> items = merged.size() > query.limit() ? merged.subList(0, query.limit()) : merged;
+        String nextCursor = null;
+        if (hasNext) {
+            ExpenseDTO last = items.get(items.size() - 1);
+            nextCursor = last.ownerId() + ":" + last.id();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasNext);
+    }
+
+    /**
+     * Prefix matches only; fuzzy matches are searched when there are none, e.g. because of a typo.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ExpenseDTO> searchExpenses(Long ownerId, SearchQuery query) {
+        List<SearchRow> rows = List.of();
+        if (query.inTextPhase()) {
+            rows = expenseRepository.searchText(ownerId, query.tsQuery(), query.afterScore(), query.afterId(), query.limit() + 1);
+        }
+        if (!query.inTextPhase() || (rows.isEmpty() && query.isFirstPage())) {
+            rows = expenseRepository.searchFuzzy(ownerId, query.text(), query.afterScore(), query.afterId(), query.limit() + 1);
+        }
+        boolean hasNext = rows.size() > query.limit();
+        if (hasNext) rows = rows.subList(0, query.limit());
+
+        List<ExpenseDTO> items = rows.stream()
+                .map(row -> new ExpenseDTO(row.getId(), row.getTitle(), row.getDescription(), row.getAmountMinor(),
+                        Currency.getInstance(row.getCurrency()), row.getOwnerId(), row.getOccurredAt(), row.getCategoryId()))
+                .toList();
+        String nextCursor = null;
+        if (hasNext) {
+            SearchRow last = rows.get(rows.size() - 1);
+            nextCursor = SearchQuery.cursorOf(last.getScore(), last.getId());
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasNext);
+    }
+
+    @Transactional
+    public Expense createExpense(Expense expense, Long categoryId) {
+        expense.setCategory(categoryService.requireOwnedCategory(categoryId, expense.getOwner().getId()));
+        Expense saved = expenseRepository.save(expense);
+        changeLogService.record(TransactionType.EXPENSE, ChangeOperation.UPSERT, saved.getOwner().getId(), List.of(saved.getId()));
+        balanceService.recordChange(TransactionType.EXPENSE, saved.getOwner().getId(), saved.getOccurredAt(),
+                saved.getAmount().getAmountMinor());
+        return saved;
+    }
+
+    @Transactional
+    public Optional<ExpenseDTO> updateExpense(Long id, Long ownerId, UpdateExpenseDTO dto) {
+        categoryService.requireOwnedCategory(dto.categoryId(), ownerId);
+        Long amountMinor = dto.value() != null && dto.value().signum() > 0 ? Money.toMinor(dto.value()) : null;
+        return expenseRepository.updateByIdAndOwnerId(id, ownerId, dto.title(), dto.description(), amountMinor, dto.occurredAt(),
+                dto.categoryId(), dto.clearCategory()).map(row -> {
+            Map<LocalDate, MinorUnitsSummary> deltasByDay = new HashMap<>();
+            deltasByDay.computeIfAbsent(BalanceService.bucketDay(row.getPreviousOccurredAt()), day -> new MinorUnitsSummary())
+                    .add(-row.getPreviousAmountMinor());
+            deltasByDay.computeIfAbsent(BalanceService.bucketDay(row.getOccurredAt()), day -> new MinorUnitsSummary())
+                    .add(row.getAmountMinor());
+            changeLogService.record(TransactionType.EXPENSE, ChangeOperation.UPSERT, ownerId, List.of(row.getId()));
+            balanceService.recordChanges(TransactionType.EXPENSE, ownerId, deltasByDay);
+            return new ExpenseDTO(row.getId(), row.getTitle(), row.getDescription(), row.getAmountMinor(),
+                    Currency.getInstance(row.getCurrency()), row.getOwnerId(), row.getOccurredAt(), row.getCategoryId());
         });
     }
 
-    public boolean deleteExpense(Long id) {
-        if (expenseRepository.existsById(id)) {
-            expenseRepository.deleteById(id);
-            return true;
+    @Transactional
+    public boolean deleteExpense(Long id, Long ownerId) {
+        return deleteExpenses(List.of(id), ownerId) > 0;
+    }
+
+    @Transactional
+    public long deleteExpenses(List<Long> ids, Long ownerId) {
+        List<Long> deleted = new ArrayList<>();
+        Map<LocalDate, MinorUnitsSummary> deltasByDay = new HashMap<>();
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            for (DeletedRow row : expenseRepository.deleteByIdsAndOwnerId(chunk, ownerId)) {
+                deleted.add(row.getId());
+                deltasByDay.computeIfAbsent(row.getDay(), day -> new MinorUnitsSummary()).add(-row.getAmountMinor());
+            }
         }
-        return false;
+        changeLogService.record(TransactionType.EXPENSE, ChangeOperation.DELETE, ownerId, deleted);
+        balanceService.recordChanges(TransactionType.EXPENSE, ownerId, deltasByDay);
+        return deleted.size();
     }
 }
@@ -0,0 +1,197 @@
+package com.smart_money.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smart_money.config.ShardRouter;
+import com.smart_money.model.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Currency;
+
+/**
+ * Streams a user's transaction history straight from a forward-only JDBC cursor to the
+ * response, so no entity is ever materialized and heap use does not grow with history size.
+ */
+@Service
+public class ExportService {
+    private static final int FETCH_SIZE = 1000;
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final String EXPENSES_SQL =
+            "SELECT id, title, description, amount_minor, currency, occurred_at FROM expenses WHERE owner_id = ? ORDER BY id";
+    private static final String INCOMES_SQL =
+            "SELECT id, title, description, amount_minor, currency, occurred_at FROM incomes WHERE owner_id = ? ORDER BY id";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) return NDJSON;
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) return format;
+            }
+            throw new IllegalArgumentException("Format must be 'ndjson' or 'csv'");
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                         ShardRouter shardRouter) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+    }
+
+    public void exportTransactions(Long ownerId, Format format, OutputStream out) throws IOException {
+        RowSink sink = format == Format.CSV ? new CsvSink(out) : new NdjsonSink(out);
+        try {
+            // PostgreSQL only honours the fetch size inside a transaction; otherwise the driver
+            // buffers the whole result set. The body is written on an async thread, hence the explicit shard.
+            shardRouter.runForOwner(ownerId, () -> readOnlyTransaction.executeWithoutResult(status -> {
+                stream(EXPENSES_SQL, "expense", ownerId, sink);
+                stream(INCOMES_SQL, "income", ownerId, sink);
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        sink.close();
+    }
+
+    private void stream(String sql, String type, Long ownerId, RowSink sink) {
+        jdbcTemplate.query(sql, rs -> {
+            try {
+                sink.write(type, rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ownerId);
+    }
+
+    private static BigDecimal toDecimal(ResultSet rs) throws SQLException {
+        return Money.toDecimal(rs.getLong("amount_minor"), Currency.getInstance(rs.getString("currency")));
+    }
+
+    private static String occurredAt(ResultSet rs) throws SQLException {
+        return rs.getObject("occurred_at", OffsetDateTime.class).toInstant().toString();
+    }
+
+    private interface RowSink {
+        void write(String type, ResultSet rs) throws IOException, SQLException;
+
+        void close() throws IOException;
+    }
+
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+        private int rows;
+
+        NdjsonSink(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(String type, ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("title", rs.getString("title"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeNumberField("value", toDecimal(rs));
+            generator.writeStringField("currency", rs.getString("currency"));
+            generator.writeStringField("occurredAt", occurredAt(rs));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++rows % FLUSH_EVERY == 0) generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+        private int rows;
+
+        CsvSink(OutputStream out) throws IOException {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            this.writer.write("type,id,title,description,value,currency,occurredAt\n");
+        }
+
+        @Override
+        public void write(String type, ResultSet rs) throws IOException, SQLException {
+            writer.write(type);
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            writeEscaped(rs.getString("title"));
+            writer.write(',');
+            writeEscaped(rs.getString("description"));
+            writer.write(',');
+            writer.write(toDecimal(rs).toPlainString());
+            writer.write(',');
+            writer.write(rs.getString("currency"));
+            writer.write(',');
+            writer.write(occurredAt(rs));
+            writer.write('\n');
+            if (++rows % FLUSH_EVERY == 0) writer.flush();
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            if (value == null) return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -1,54 +1,184 @@
 package com.smart_money.service;
 
-import com.smart_money.dto.request.income.CreateIncomeDTO;
+import com.smart_money.config.CacheConfig;
+import com.smart_money.config.ShardRouter;
 import com.smart_money.dto.request.income.UpdateIncomeDTO;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.request.search.SearchQuery;
+import com.smart_money.dto.response.income.IncomeDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import com.smart_money.model.ChangeOperation;
 import com.smart_money.model.Income;
+import com.smart_money.model.MinorUnitsSummary;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
 import com.smart_money.repository.IncomeRepository;
+import com.smart_money.repository.projection.DeletedRow;
+import com.smart_money.repository.projection.SearchRow;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class IncomeService {
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final IncomeRepository incomeRepository;
+    private final BalanceService balanceService;
+    private final ChangeLogService changeLogService;
+    private final CategoryService categoryService;
+    private final ShardRouter shardRouter;
 
-    public IncomeService(IncomeRepository incomeRepository) {
+    public IncomeService(IncomeRepository incomeRepository, BalanceService balanceService, ChangeLogService changeLogService,
+                         CategoryService categoryService, ShardRouter shardRouter) {
         this.incomeRepository = incomeRepository;
+        this.balanceService = balanceService;
+        this.changeLogService = changeLogService;
+        this.categoryService = categoryService;
+        this.shardRouter = shardRouter;
+    }
+
+    @Transactional(readOnly = true)
+    public List<IncomeDTO> findAll() {
+        return shardRouter.callOnEveryShard(incomeRepository::findAllViews).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<IncomeDTO> findIncomeById(Long id) {
+        return shardRouter.findFirst(() -> incomeRepository.findViewById(id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<IncomeDTO> findAllIncomesByOwnerId(Long ownerId) {
+        return incomeRepository.findAllViewsByOwnerId(ownerId);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.INCOME_FIRST_PAGES, key = "#ownerId", condition = "#query.isDefaultFirstPage()")
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeDTO> findIncomesPageByOwnerId(Long ownerId, PageQuery query) {
+        PageRequest pageRequest = PageRequest.ofSize(query.limit());
+        Slice<IncomeDTO> slice = query.ascending()
+                ? incomeRepository.findPageByOwnerIdAscending(ownerId, query.afterIdOrStart(), query.minAmountMinor(), query.maxAmountMinor(), pageRequest)
+                : incomeRepository.findPageByOwnerIdDescending(ownerId, query.afterIdOrStart(), query.minAmountMinor(), query.maxAmountMinor(), pageRequest);
+        List<IncomeDTO> items = slice.getContent();
+        String nextCursor = slice.hasNext() ? String.valueOf(items.get(items.size() - 1).id()) : null;
+        return new CursorPageDTO<>(items, nextCursor, slice.hasNext());
     }
 
-    public List<Income> findAll() {
-        return incomeRepository.findAll();
+    /**
+     * Every shard returns its own next page; the lowest (owner, id) keys among them make up this page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeDTO> findIncomesPage(PageQuery query) {
+        List<Slice<IncomeDTO>> slices = shardRouter.callOnEveryShard(() -> incomeRepository.findPage(query.afterOwnerId(),
+                query.afterIdOrStart(), query.minAmountMinor(), query.maxAmountMinor(), PageRequest.ofSize(query.limit())));
+        List<IncomeDTO> merged = slices.stream()
+                .flatMap(slice -> slice.getContent().stream())
+                .sorted(Comparator.comparing(IncomeDTO::ownerId).thenComparing(IncomeDTO::id))
+                .toList();
+        boolean hasNext = merged.size() > query.limit() || slices.stream().anyMatch(Slice::hasNext);
+        List<IncomeDTO> items = merged.size() > query.limit() ? merged.subList(0, query.limit()) : merged;
+        String nextCursor = null;
+        if (hasNext) {
+            IncomeDTO last = items.get(items.size() - 1);
+            nextCursor = last.ownerId() + ":" + last.id();
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasNext);
     }
 
-    public Optional<Income> findIncomeById(Long id) {
-        return incomeRepository.findById(id);
+    /**
+     * Prefix matches only; fuzzy matches are searched when there are none, e.g. because of a typo.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeDTO> searchIncomes(Long ownerId, SearchQuery query) {
+        List<SearchRow> rows = List.of();
+        if (query.inTextPhase()) {
+            rows = incomeRepository.searchText(ownerId, query.tsQuery(), query.afterScore(), query.afterId(), query.limit() + 1);
+        }
+        if (!query.inTextPhase() || (rows.isEmpty() && query.isFirstPage())) {
+            rows = incomeRepository.searchFuzzy(ownerId, query.text(), query.afterScore(), query.afterId(), query.limit() + 1);
+        }
+        boolean hasNext = rows.size() > query.limit();
+        if (hasNext) rows = rows.subList(0, query.limit());
+
+        List<IncomeDTO> items = rows.stream()
+                .map(row -> new IncomeDTO(row.getId(), row.getTitle(), row.getDescription(), row.getAmountMinor(),
+                        Currency.getInstance(row.getCurrency()), row.getOwnerId(), row.getOccurredAt(), row.getCategoryId()))
+                .toList();
+        String nextCursor = null;
+        if (hasNext) {
+            SearchRow last = rows.get(rows.size() - 1);
+            nextCursor = SearchQuery.cursorOf(last.getScore(), last.getId());
+        }
+        return new CursorPageDTO<>(items, nextCursor, hasNext);
     }
 
-    public Income createIncome(CreateIncomeDTO dto) {
-        Income income = new Income(dto.title(), dto.description(), dto.value(), dto.owner());
-        return incomeRepository.save(income);
+    @Transactional
+    public Income createIncome(Income income, Long categoryId) {
+        income.setCategory(categoryService.requireOwnedCategory(categoryId, income.getOwner().getId()));
+        Income saved = incomeRepository.save(income);
+        changeLogService.record(TransactionType.INCOME, ChangeOperation.UPSERT, saved.getOwner().getId(), List.of(saved.getId()));
+        balanceService.recordChange(TransactionType.INCOME, saved.getOwner().getId(), saved.getOccurredAt(),
+                saved.getAmount().getAmountMinor());
+        return saved;
     }
 
-    public Optional<Income> updateIncome(Long id, UpdateIncomeDTO dto) {
-        return incomeRepository.findById(id).map(existingIncome -> {
-            if (dto.title() != null) existingIncome.setTitle(dto.title());
-            if (dto.description() != null) existingIncome.setDescription(dto.description());
-            if (dto.value() >0 ) existingIncome.setValue(dto.value());
-            return incomeRepository.save(existingIncome);
+    @Transactional
+    public Optional<IncomeDTO> updateIncome(Long id, Long ownerId, UpdateIncomeDTO dto) {
+        categoryService.requireOwnedCategory(dto.categoryId(), ownerId);
+        Long amountMinor = dto.value() != null && dto.value().signum() > 0 ? Money.toMinor(dto.value()) : null;
+        return incomeRepository.updateByIdAndOwnerId(id, ownerId, dto.title(), dto.description(), amountMinor, dto.occurredAt(),
+                dto.categoryId(), dto.clearCategory()).map(row -> {
+            Map<LocalDate, MinorUnitsSummary> deltasByDay = new HashMap<>();
+            deltasByDay.computeIfAbsent(BalanceService.bucketDay(row.getPreviousOccurredAt()), day -> new MinorUnitsSummary())
+                    .add(-row.getPreviousAmountMinor());
+            deltasByDay.computeIfAbsent(BalanceService.bucketDay(row.getOccurredAt()), day -> new MinorUnitsSummary())
+                    .add(row.getAmountMinor());
+            changeLogService.record(TransactionType.INCOME, ChangeOperation.UPSERT, ownerId, List.of(row.getId()));
+            balanceService.recordChanges(TransactionType.INCOME, ownerId, deltasByDay);
+            return new IncomeDTO(row.getId(), row.getTitle(), row.getDescription(), row.getAmountMinor(),
+                    Currency.getInstance(row.getCurrency()), row.getOwnerId(), row.getOccurredAt(), row.getCategoryId());
         });
     }
 
-    public boolean deleteIncome(Long id) {
-        if (incomeRepository.existsById(id)) {
-            incomeRepository.deleteById(id);
-            return true;
+    @Transactional
+    public boolean deleteIncome(Long id, Long ownerId) {
+        return deleteIncomes(List.of(id), ownerId) > 0;
+    }
+
+    @Transactional
+    public long deleteIncomes(List<Long> ids, Long ownerId) {
+        List<Long> deleted = new ArrayList<>();
+        Map<LocalDate, MinorUnitsSummary> deltasByDay = new HashMap<>();
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            for (DeletedRow row : incomeRepository.deleteByIdsAndOwnerId(chunk, ownerId)) {
+                deleted.add(row.getId());
+                deltasByDay.computeIfAbsent(row.getDay(), day -> new MinorUnitsSummary()).add(-row.getAmountMinor());
+            }
         }
-        return false;
+        changeLogService.record(TransactionType.INCOME, ChangeOperation.DELETE, ownerId, deleted);
+        balanceService.recordChanges(TransactionType.INCOME, ownerId, deltasByDay);
+        return deleted.size();
     }
 
+    @Transactional(readOnly = true)
     public Optional<BigDecimal> sumByOwnerId(Long ownerId) {
-        return incomeRepository.sumByOwnerId(ownerId);
+        return incomeRepository.sumByOwnerId(ownerId).map(Money::toDecimal);
     }
 }
@@ -0,0 +1,188 @@
+package com.smart_money.service;
+
+import com.smart_money.config.ShardDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves owners pinned away from their ring shard onto it, a batch at a time: the batch is marked as moving, which
+ * turns its writes away with a 503, then each owner's rows are copied to the ring shard in one transaction and the
+ * pin is pointed there. The old rows are deleted once every instance has picked up the new placement, so reads
+ * routed by the old one still find them. Owners left marked as moving by an interrupted run are picked up
+ * again; the copy replaces whatever an earlier attempt left on the target. A Postgres advisory lock on the catalog
+ * keeps the instances from moving at the same time.
+ */
+@Component
+@ConditionalOnExpression("!'${sharding.shard-urls:}'.isBlank()")
+public class ShardRebalanceJob {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalanceJob.class);
+    private static final long LOCK_KEY = 0x5348415244L;
+
+    /**
+     * Tables holding an owner's rows with the column naming the owner, parents before children.
+     */
+    private static final List<Map.Entry<String, String>> OWNER_TABLES = List.of(
+            Map.entry("users", "id"),
+            Map.entry("categories", "owner_id"),
+            Map.entry("expenses", "owner_id"),
+            Map.entry("incomes", "owner_id"),
+            Map.entry("balance_ledgers", "owner_id"),
+            Map.entry("balance_rollups", "owner_id"),
+            Map.entry("change_log", "owner_id"));
+
+    private final ShardDirectory shardDirectory;
+    private final int batchSize;
+
+    public ShardRebalanceJob(ShardDirectory shardDirectory,
+                             @Value("${sharding.rebalance.batch-size:100}") int batchSize) {
+        this.shardDirectory = shardDirectory;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${sharding.rebalance.interval:1m}")
+    public int rebalance() throws SQLException, InterruptedException {
+        try (Connection lock = shardDirectory.dataSource(shardDirectory.catalogShard()).getConnection()) {
+            if (!tryLock(lock)) return 0;
+            try {
+                return moveMisplacedOwners();
+            } finally {
+                try (PreparedStatement unlock = lock.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    unlock.setLong(1, LOCK_KEY);
+                    unlock.execute();
+                }
+            }
+        }
+    }
+
+    private int moveMisplacedOwners() throws InterruptedException {
+        shardDirectory.refresh();
+        List<Long> pending = new ArrayList<>();
+        shardDirectory.pins().forEach((ownerId, pin) -> {
+            if (pin.moving() || !pin.shard().equals(shardDirectory.ringShardFor(ownerId))) {
+                pending.add(ownerId);
+            } else {
+                finish(ownerId, pin.shard());
+            }
+        });
+        if (pending.isEmpty()) return 0;
+
+        long startedAt = System.nanoTime();
+        int moved = 0;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Long> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            shardDirectory.markMoving(batch);
+            // Lets every instance see the moving flag and finish the writes it routed by the old placement.
+            Thread.sleep(shardDirectory.propagationDelay().toMillis());
+
+            List<Long> placed = new ArrayList<>();
+            for (Long ownerId : batch) {
+                String source = shardDirectory.pins().get(ownerId).shard();
+                String target = shardDirectory.ringShardFor(ownerId);
+                try {
+                    copyAndPlace(ownerId, source, target);
+                    placed.add(ownerId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not move owner {} from {} to {}, retrying on the next run", ownerId, source, target, e);
+                }
+            }
+            if (placed.isEmpty()) continue;
+
+            // Reads keep going to the old shard until every instance has seen the new placement.
+            shardDirectory.refresh();
+            Thread.sleep(shardDirectory.propagationDelay().toMillis());
+            for (Long ownerId : placed) {
+                try {
+                    finish(ownerId, shardDirectory.ringShardFor(ownerId));
+                    moved++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not delete the old rows of owner {}, retrying on the next run", ownerId, e);
+                }
+            }
+        }
+        shardDirectory.refresh();
+        log.info("Moved {} of {} owner(s) to their ring shard in {} ms",
+                moved, pending.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        return moved;
+    }
+
+    private void copyAndPlace(long ownerId, String source, String target) {
+        if (!source.equals(target)) {
+            DataSource targetDataSource = shardDirectory.dataSource(target);
+            JdbcTemplate from = new JdbcTemplate(shardDirectory.dataSource(source));
+            JdbcTemplate to = new JdbcTemplate(targetDataSource);
+            new TransactionTemplate(new DataSourceTransactionManager(targetDataSource)).executeWithoutResult(status -> {
+                deleteOwnerRows(to, ownerId);
+                for (Map.Entry<String, String> table : OWNER_TABLES) {
+                    copy(from, to, table.getKey(), table.getValue(), ownerId);
+                }
+            });
+        }
+        shardDirectory.place(ownerId, target);
+    }
+
+    /**
+     * Deletes the owner's rows from every shard but the one it is placed on, then drops the pin. Also completes
+     * moves that were interrupted after the placement changed; by the next run every instance has seen it.
+     */
+    private void finish(long ownerId, String shard) {
+        for (String other : shardDirectory.shardNames()) {
+            if (other.equals(shard)) continue;
+            DataSource dataSource = shardDirectory.dataSource(other);
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+                    .executeWithoutResult(status -> deleteOwnerRows(new JdbcTemplate(dataSource), ownerId));
+        }
+        shardDirectory.unpinIfOnRing(ownerId);
+    }
+
+    private static void copy(JdbcTemplate from, JdbcTemplate to, String table, String ownerColumn, long ownerId) {
+        // Generated columns such as the search vectors are rebuilt by the target on insert.
+        List<String> columns = from.queryForList("""
+                SELECT column_name FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND is_generated = 'NEVER'
+                ORDER BY ordinal_position""", String.class, table);
+        String columnList = String.join(", ", columns);
+        String insert = "INSERT INTO " + table + " (" + columnList + ") VALUES ("
+                + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+
+        List<Object[]> rows = from.query("SELECT " + columnList + " FROM " + table + " WHERE " + ownerColumn + " = ?",
+                (ResultSet rs, int rowNum) -> {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    return row;
+                }, ownerId);
+        if (!rows.isEmpty()) to.batchUpdate(insert, rows);
+    }
+
+    private static void deleteOwnerRows(JdbcTemplate jdbc, long ownerId) {
+        for (Map.Entry<String, String> table : OWNER_TABLES.reversed()) {
+            jdbc.update("DELETE FROM " + table.getKey() + " WHERE " + table.getValue() + " = ?", ownerId);
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
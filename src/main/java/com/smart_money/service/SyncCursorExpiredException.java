@@ -0,0 +1,11 @@
+package com.smart_money.service;
+
+/**
+ * Thrown when a sync cursor points before entries that have already been compacted away; mapped to 410,
+ * telling the client to reload its full state and start again from a fresh cursor.
+ */
+public class SyncCursorExpiredException extends RuntimeException {
+    public SyncCursorExpiredException(String message) {
+        super(message);
+    }
+}
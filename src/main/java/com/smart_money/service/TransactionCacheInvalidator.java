@@ -0,0 +1,38 @@
+package com.smart_money.service;
+
+import com.smart_money.config.CacheConfig;
+import com.smart_money.model.TransactionType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts an owner's cached balance and first page once a write to their transactions has committed.
+ * Runs before the other after-commit listeners so they never read the entry that is being replaced.
+ */
+@Component
+public class TransactionCacheInvalidator {
+    private final CacheManager cacheManager;
+
+    public TransactionCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        evict(CacheConfig.BALANCES, event.ownerId());
+        evict(event.type() == TransactionType.EXPENSE ? CacheConfig.EXPENSE_FIRST_PAGES : CacheConfig.INCOME_FIRST_PAGES,
+                event.ownerId());
+    }
+
+    private void evict(String cacheName, Long ownerId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(ownerId);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.smart_money.service;
+
+import com.smart_money.model.TransactionType;
+
+/**
+ * Published inside the transaction that writes an owner's expenses or incomes. Listeners that push or
+ * invalidate derived state should use {@code @TransactionalEventListener} so they only see committed data.
+ */
+public record TransactionChangedEvent(Long ownerId, TransactionType type) {
+}
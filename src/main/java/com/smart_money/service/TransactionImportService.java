@@ -0,0 +1,307 @@
+package com.smart_money.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smart_money.dto.request.imports.ImportRowDTO;
+import com.smart_money.dto.response.imports.ImportErrorDTO;
+import com.smart_money.dto.response.imports.ImportResultDTO;
+import com.smart_money.model.ChangeOperation;
+import com.smart_money.model.MinorUnitsSummary;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports transactions in JDBC batches. Input is parsed as a stream, every row is validated on
+ * its own and rejected rows are reported back without failing the rest of the file. Each batch
+ * and its balance update commit together.
+ */
+@Service
+public class TransactionImportService {
+    private static final Logger log = LoggerFactory.getLogger(TransactionImportService.class);
+
+    private static final String INVALID_OCCURRED_AT = "Occurred at must be an ISO date or date-time";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceService balanceService;
+    private final ChangeLogService changeLogService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public TransactionImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    BalanceService balanceService, ChangeLogService changeLogService,
+                                    ObjectMapper objectMapper, Validator validator,
+                                    @Value("${import.batch-size:500}") int batchSize,
+                                    @Value("${import.max-reported-errors:100}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.balanceService = balanceService;
+        this.changeLogService = changeLogService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Elements that are not objects are rejected as rows. A syntax error ends the import where it is found,
+     * since the stream cannot be resynchronised; the rows before it are still imported and the stop is
+     * reported against the row it was found in.
+     */
+    public ImportResultDTO importJson(Long ownerId, TransactionType type, InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch(ownerId, type);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of transactions");
+            }
+            long row = 1;
+            try {
+                JsonToken token;
+                for (; (token = parser.nextToken()) != JsonToken.END_ARRAY; row++) {
+                    if (token == null) {
+                        batch.stop(row, "Unexpected end of input, the array is not closed");
+                        return batch.finish();
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        batch.reject(row, "Row must be a JSON object");
+                        continue;
+                    }
+                    ObjectNode node = parser.readValueAsTree();
+                    try {
+                        // occurredAt goes through the same parser as the CSV column, which also takes plain dates.
+                        JsonNode occurredAt = node.remove("occurredAt");
+                        ImportRowDTO dto = objectMapper.treeToValue(node, ImportRowDTO.class);
+                        batch.add(row, new ImportRowDTO(dto.title(), dto.description(), dto.value(),
+                                parseOccurredAt(occurredAt)));
+                    } catch (DateTimeParseException e) {
+                        batch.reject(row, INVALID_OCCURRED_AT);
+                    } catch (IOException e) {
+                        batch.reject(row, "Malformed row");
+                    }
+                }
+                if (parser.nextToken() != null) {
+                    batch.stop(row, "Unexpected content after the array");
+                }
+            } catch (JsonProcessingException e) {
+                batch.stop(row, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Rows are rejected on their own like JSON rows. Malformed CSV, such as an unterminated quote, ends the import
+     * at the record it starts in; the rows before it are still imported.
+     */
+    public ImportResultDTO importCsv(Long ownerId, TransactionType type, InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch(ownerId, type);
+        CsvRecordReader reader = new CsvRecordReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+
+        List<String> header;
+        try {
+            header = reader.next();
+        } catch (CsvRecordReader.MalformedCsvException e) {
+            throw new IllegalArgumentException("Malformed CSV header: " + e.getMessage());
+        }
+        if (header == null) return batch.finish();
+        int titleColumn = columnIndex(header, "title");
+        int descriptionColumn = columnIndex(header, "description");
+        int valueColumn = columnIndex(header, "value");
+        int occurredAtColumn = Math.max(columnIndex(header, "occurredat"), columnIndex(header, "occurred_at"));
+        if (titleColumn < 0 || valueColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain 'title' and 'value' columns");
+        }
+
+        long row = 0;
+        try {
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                row++;
+                try {
+                    String value = field(fields, valueColumn);
+                    batch.add(row, new ImportRowDTO(
+                            field(fields, titleColumn),
+                            field(fields, descriptionColumn),
+                            value == null || value.isBlank() ? null : new BigDecimal(value.trim()),
+                            parseOccurredAt(field(fields, occurredAtColumn))));
+                } catch (NumberFormatException e) {
+                    batch.reject(row, "Value must be a number");
+                } catch (DateTimeParseException e) {
+                    batch.reject(row, INVALID_OCCURRED_AT);
+                }
+            }
+        } catch (CsvRecordReader.MalformedCsvException e) {
+            batch.stop(row + 1, "Malformed CSV, import stopped: " + e.getMessage());
+        }
+        return batch.finish();
+    }
+
+    private static int columnIndex(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) return i;
+        }
+        return -1;
+    }
+
+    private static Instant parseOccurredAt(JsonNode node) {
+        if (node == null || node.isNull()) return null;
+        if (!node.isTextual()) throw new DateTimeParseException("Not a string", node.toString(), 0);
+        return parseOccurredAt(node.asText());
+    }
+
+    /**
+     * An ISO date-time with an offset, or an ISO date taken as the start of that day in UTC.
+     */
+    private static Instant parseOccurredAt(String text) {
+        if (text == null || text.isBlank()) return null;
+        String trimmed = text.trim();
+        if (trimmed.length() == 10) {
+            return LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return OffsetDateTime.parse(trimmed).toInstant();
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) return null;
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private final class ImportBatch {
+        private final Long ownerId;
+        private final TransactionType type;
+        private final String insertSql;
+        private final List<ImportRowDTO> pending = new ArrayList<>(batchSize);
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private final long startedAt = System.nanoTime();
+        private long imported;
+        private long rejected;
+        private Long stoppedAtRow;
+
+        ImportBatch(Long ownerId, TransactionType type) {
+            this.ownerId = ownerId;
+            this.type = type;
+            this.insertSql = "INSERT INTO " + type.getTableName() +
+                    " (title, description, amount_minor, currency, occurred_at, owner_id) VALUES (?, ?, ?, ?, ?, ?)";
+        }
+
+        void add(long row, ImportRowDTO dto) {
+            Set<ConstraintViolation<ImportRowDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            pending.add(dto);
+            if (pending.size() >= batchSize) flush();
+        }
+
+        void reject(long row, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportErrorDTO(row, message));
+            }
+        }
+
+        /**
+         * Records the error that ended the import. It is always reported, even past the error limit.
+         */
+        void stop(long row, String message) {
+            rejected++;
+            stoppedAtRow = row;
+            errors.add(new ImportErrorDTO(row, message));
+        }
+
+        ImportResultDTO finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - startedAt;
+            long elapsedMillis = elapsedNanos / 1_000_000;
+            double rowsPerSecond = elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos;
+            log.info("Imported {} {} for owner {} ({} rejected) in {} ms, {} rows/s",
+                    imported, type.getTableName(), ownerId, rejected, elapsedMillis, Math.round(rowsPerSecond));
+            return new ImportResultDTO(imported, rejected, errors, stoppedAtRow, elapsedMillis, rowsPerSecond);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) return;
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                Map<LocalDate, MinorUnitsSummary> totalsByDay = new HashMap<>();
+                List<Object[]> args = new ArrayList<>(pending.size());
+                for (ImportRowDTO dto : pending) {
+                    long amountMinor = Money.toMinor(dto.value());
+                    Instant occurredAt = dto.occurredAt() != null ? dto.occurredAt() : now;
+                    args.add(new Object[]{dto.title(), dto.description(), amountMinor,
+                            Money.DEFAULT_CURRENCY.getCurrencyCode(), OffsetDateTime.ofInstant(occurredAt, ZoneOffset.UTC), ownerId});
+                    totalsByDay.computeIfAbsent(BalanceService.bucketDay(occurredAt), day -> new MinorUnitsSummary())
+                            .add(amountMinor);
+                }
+                GeneratedKeyHolder keys = new GeneratedKeyHolder();
+                jdbcTemplate.batchUpdate(con -> con.prepareStatement(insertSql, new String[]{"id"}),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                Object[] row = args.get(i);
+                                for (int column = 0; column < row.length; column++) {
+                                    ps.setObject(column + 1, row[column]);
+                                }
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return args.size();
+                            }
+                        }, keys);
+                List<Long> ids = new ArrayList<>(args.size());
+                keys.getKeyList().forEach(key -> ids.add(((Number) key.get("id")).longValue()));
+                changeLogService.record(type, ChangeOperation.UPSERT, ownerId, ids);
+
+                balanceService.recordChanges(type, ownerId, totalsByDay);
+            });
+            imported += pending.size();
+            pending.clear();
+        }
+    }
+}
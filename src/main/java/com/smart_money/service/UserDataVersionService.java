@@ -0,0 +1,100 @@
+package com.smart_money.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smart_money.config.ReadYourWritesTracker;
+import com.smart_money.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user data version, bumped by every write to a user or their transactions. The committed value
+ * is kept in memory so conditional reads can be answered without touching the database. This instance's own
+ * commits update it at once; entries expire a short while after they were loaded or updated, which bounds how
+ * long a write committed on another instance can go unseen here, however often the user polls.
+ */
+@Service
+public class UserDataVersionService {
+    private final UserRepository userRepository;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final Cache<Long, Long> versions;
+
+    public UserDataVersionService(UserRepository userRepository,
+                                  ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                                  @Value("${data-version.cache.max-size:100000}") long maxSize,
+                                  @Value("${data-version.cache.ttl:1s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Loads outside the cache's lock, which a virtual thread waiting for a connection would otherwise pin to its
+     * carrier. Concurrent loads and commits are merged by taking the highest version.
+     */
+    public long currentVersion(Long userId) {
+        Long cached = versions.getIfPresent(userId);
+        if (cached != null) return cached;
+        long loaded = userRepository.findDataVersionById(userId).orElse(0L);
+        return versions.asMap().merge(userId, loaded, Math::max);
+    }
+
+    /**
+     * Increments the version once per transaction and returns it; later calls in the same transaction
+     * return the same value. Callers bump after their data change, and the cached value only moves
+     * forward after commit, so a version is never served ahead of the data it describes. With read replicas
+     * the user's reads are also kept on the primary for a while.
+     */
+    @Transactional
+    public long bump(Long userId) {
+        Map<Long, Long> bumped = bumpedInCurrentTransaction();
+        Long version = bumped.get(userId);
+        if (version == null) {
+            version = userRepository.incrementDataVersion(userId)
+                    .orElseThrow(() -> new IllegalStateException("User " + userId + " does not exist"));
+            bumped.put(userId, version);
+        }
+        return version;
+    }
+
+    public void forget(Long userId) {
+        versions.invalidate(userId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> bumpedInCurrentTransaction() {
+        Map<Long, Long> bumped = (Map<Long, Long>) TransactionSynchronizationManager.getResource(this);
+        if (bumped != null) return bumped;
+
+        Map<Long, Long> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                readYourWritesTracker.ifAvailable(tracker -> created.keySet().forEach(tracker::recordWrite));
+            }
+
+            @Override
+            public void afterCommit() {
+                created.forEach((userId, version) -> versions.asMap().merge(userId, version, Math::max));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(UserDataVersionService.this);
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,105 @@
+package com.smart_money.service;
+
+import com.smart_money.config.ShardDirectory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps {@code user_emails} on the catalog, which makes email addresses unique across every shard. With a single
+ * database the claims are written in the caller's transaction. With shards they commit on the catalog straight
+ * away, are undone when the caller's transaction rolls back, and releases wait for the caller's commit.
+ */
+@Service
+public class UserEmailRegistry {
+    private final JdbcTemplate catalog;
+    private final TransactionTemplate catalogTransaction;
+
+    public UserEmailRegistry(ObjectProvider<ShardDirectory> shardDirectory, JdbcTemplate jdbcTemplate) {
+        ShardDirectory directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            this.catalog = jdbcTemplate;
+            this.catalogTransaction = null;
+        } else {
+            DataSource dataSource = directory.dataSource(directory.catalogShard());
+            this.catalog = new JdbcTemplate(dataSource);
+            // A new transaction also keeps the undo, which runs after the caller's completion, off its resources.
+            this.catalogTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.catalogTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+    }
+
+    public boolean isRegistered(String email) {
+        return Boolean.TRUE.equals(catalog.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM user_emails WHERE lower(email) = lower(?))", Boolean.class, email));
+    }
+
+    /**
+     * @throws EmailAlreadyRegisteredException when another user holds the address
+     */
+    public void claim(long ownerId, String email) {
+        write(() -> {
+            int inserted = catalog.update(
+                    "INSERT INTO user_emails (owner_id, email) VALUES (?, ?) ON CONFLICT DO NOTHING", ownerId, email);
+            if (inserted == 0) throw new EmailAlreadyRegisteredException();
+        }, () -> catalog.update("DELETE FROM user_emails WHERE owner_id = ?", ownerId));
+    }
+
+    /**
+     * @throws EmailAlreadyRegisteredException when another user holds the new address
+     */
+    public void change(long ownerId, String previousEmail, String email) {
+        write(() -> upsert(ownerId, email), () -> upsert(ownerId, previousEmail));
+    }
+
+    public void release(long ownerId) {
+        Runnable delete = () -> catalog.update("DELETE FROM user_emails WHERE owner_id = ?", ownerId);
+        if (catalogTransaction == null) {
+            delete.run();
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogTransaction.executeWithoutResult(status -> delete.run());
+                }
+            });
+        } else {
+            catalogTransaction.executeWithoutResult(status -> delete.run());
+        }
+    }
+
+    private void upsert(long ownerId, String email) {
+        try {
+            catalog.update("INSERT INTO user_emails (owner_id, email) VALUES (?, ?) " +
+                    "ON CONFLICT (owner_id) DO UPDATE SET email = excluded.email", ownerId, email);
+        } catch (DuplicateKeyException e) {
+            throw new EmailAlreadyRegisteredException();
+        }
+    }
+
+    private void write(Runnable change, Runnable undo) {
+        if (catalogTransaction == null) {
+            change.run();
+            return;
+        }
+        catalogTransaction.executeWithoutResult(status -> change.run());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        catalogTransaction.executeWithoutResult(transaction -> undo.run());
+                    }
+                }
+            });
+        }
+    }
+}
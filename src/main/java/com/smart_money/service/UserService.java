@@ -1,9 +1,15 @@
 package com.smart_money.service;
 
+import com.smart_money.config.ShardRouter;
 import com.smart_money.dto.request.user.UpdateUserDTO;
 import com.smart_money.model.User;
 import com.smart_money.repository.UserRepository;
+import com.smart_money.security.UserCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -12,33 +18,91 @@ import java.util.Optional;
 
 @Service
 public class UserService {
-    private final UserRepository userRepository;
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
-    public UserService(UserRepository userRepository) {
+    private final UserRepository userRepository;
+    private final BalanceService balanceService;
+    private final UserCache userCache;
+    private final UserDataVersionService userDataVersionService;
+    private final ChangeLogService changeLogService;
+    private final ShardRouter shardRouter;
+    private final UserEmailRegistry userEmailRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserService(UserRepository userRepository, BalanceService balanceService, UserCache userCache,
+                       UserDataVersionService userDataVersionService, ChangeLogService changeLogService,
+                       ShardRouter shardRouter, UserEmailRegistry userEmailRegistry, JdbcTemplate jdbcTemplate) {
         this.userRepository = userRepository;
+        this.balanceService = balanceService;
+        this.userCache = userCache;
+        this.userDataVersionService = userDataVersionService;
+        this.changeLogService = changeLogService;
+        this.shardRouter = shardRouter;
+        this.userEmailRegistry = userEmailRegistry;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
+    @Transactional(readOnly = true)
     public List<User> findAllUsers() {
-        return userRepository.findAll();
+        return shardRouter.callOnEveryShard(userRepository::findAll).stream()
+                .flatMap(List::stream)
+                .toList();
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findUserById(Long id) {
-        return userRepository.findById(id);
+        return shardRouter.callForOwner(id, () -> userRepository.findById(id));
     }
 
     public Optional<User> findUserByEmail(String email) {
-        return userRepository.findUserByEmail(email);
+        return shardRouter.findFirst(() -> userRepository.findUserByEmail(email));
+    }
+
+    public boolean isEmailRegistered(String email) {
+        return userEmailRegistry.isRegistered(email);
     }
 
+    /**
+     * The email is claimed in the catalog before the row is inserted, so it stays unique across shards. The id is
+     * drawn first; with shards the row goes to the id's shard, since the insert could not generate an id that
+     * belongs to the shard it runs on.
+     *
+     * @throws EmailAlreadyRegisteredException when another user already holds the email
+     */
+    @Transactional
     public User createUser(User user) {
-        return userRepository.save(user);
+        Long allocated = shardRouter.allocateOwnerId();
+        long id = allocated != null ? allocated
+                : jdbcTemplate.queryForObject("SELECT nextval(pg_get_serial_sequence('users', 'id'))", Long.class);
+        userEmailRegistry.claim(id, user.getEmail());
+
+        shardRouter.runForOwner(id, () -> jdbcTemplate.update(
+                "INSERT INTO users (id, name, last_name, email, password, date_of_birth, profile_url, security_stamp) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                id, user.getName(), user.getLastName(), user.getEmail(), user.getPassword(), user.getDateOfBirth(),
+                user.getProfileUrl(), user.getSecurityStamp()));
+        user.setId(id);
+        return user;
+    }
+
+    public User saveUser(User user) {
+        return shardRouter.callForOwner(user.getId(), () -> userRepository.save(user));
     }
 
+    /**
+     * @throws EmailAlreadyRegisteredException when another user already holds the new email
+     */
+    @Transactional
     public Optional<User> updateUser(Long id, UpdateUserDTO updateUserDTO) {
-        return userRepository.findById(id).map(existingUser -> {
+        return shardRouter.callForOwner(id, () -> userRepository.findById(id).map(existingUser -> {
+            boolean credentialsChanged = (updateUserDTO.email() != null && !updateUserDTO.email().equals(existingUser.getEmail()))
+                    || updateUserDTO.password() != null;
             if (updateUserDTO.name() != null) existingUser.setName(capitalizeFirstLetters(updateUserDTO.name()));
             if (updateUserDTO.lastName() != null) existingUser.setLastName(capitalizeFirstLetters(updateUserDTO.lastName()));
-            if (updateUserDTO.email() != null) existingUser.setEmail(updateUserDTO.email());
+            if (updateUserDTO.email() != null && !updateUserDTO.email().equals(existingUser.getEmail())) {
+                userEmailRegistry.change(id, existingUser.getEmail(), updateUserDTO.email());
+                existingUser.setEmail(updateUserDTO.email());
+            }
             if (updateUserDTO.password() != null) existingUser.setPassword(updateUserDTO.password());
             if (updateUserDTO.profileUrl() != null) existingUser.setProfileUrl(updateUserDTO.profileUrl());
 
@@ -51,19 +115,31 @@ public class UserService {
                     LocalDate dob = LocalDate.parse(updateUserDTO.dateOfBirth(), DateTimeFormatter.ISO_LOCAL_DATE);
                     existingUser.setDateOfBirth(dob);
                 } catch (Exception e) {
-                    System.err.println("Error while parsing date of birth: " + e.getMessage());
+                    log.warn("Ignoring unparseable date of birth for user {}: {}", id, e.getMessage());
                 }
             }
-            return userRepository.save(existingUser);
-        });
+            if (credentialsChanged) existingUser.rotateSecurityStamp();
+            User saved = userRepository.save(existingUser);
+            userDataVersionService.bump(id);
+            userCache.invalidate(id);
+            return saved;
+        }));
     }
 
+    @Transactional
     public boolean deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return shardRouter.callForOwner(id, () -> {
+            if (userRepository.existsById(id)) {
+                userRepository.deleteById(id);
+                balanceService.deleteBalance(id);
+                changeLogService.deleteByOwnerId(id);
+                userEmailRegistry.release(id);
+                userCache.invalidate(id);
+                userDataVersionService.forget(id);
+                return true;
+            }
+            return false;
+        });
     }
 
     public static String capitalizeFirstLetters(String input) {
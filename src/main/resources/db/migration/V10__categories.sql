@@ -0,0 +1,13 @@
+-- Per-owner categories that expenses and incomes may point at. Deleting a category leaves its transactions
+-- uncategorized.
+CREATE TABLE categories (
+    id       bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name     varchar(50) NOT NULL,
+    owner_id bigint      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT uk_categories_owner_id_name UNIQUE (owner_id, name)
+);
+
+ALTER TABLE expenses ADD COLUMN category_id bigint REFERENCES categories (id) ON DELETE SET NULL;
+ALTER TABLE incomes ADD COLUMN category_id bigint REFERENCES categories (id) ON DELETE SET NULL;
+CREATE INDEX idx_expenses_category_id ON expenses (category_id);
+CREATE INDEX idx_incomes_category_id ON incomes (category_id);
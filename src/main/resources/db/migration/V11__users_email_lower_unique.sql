@@ -0,0 +1,3 @@
+-- Emails are unique regardless of case, and UserRepository looks them up through lower(email) so login and
+-- registration checks use this index. Fails if existing rows already differ only by case; merge those first.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_lower ON users (lower(email));
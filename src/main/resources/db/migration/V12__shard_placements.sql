@@ -0,0 +1,7 @@
+-- Owners that live on a shard other than their place on the consistent-hash ring, because they still have to be
+-- moved or are being moved right now. Only the first shard's table is used, and only when sharding is enabled.
+CREATE TABLE IF NOT EXISTS shard_placements (
+    owner_id bigint PRIMARY KEY,
+    shard    varchar(32) NOT NULL,
+    moving   boolean DEFAULT false NOT NULL
+);
@@ -0,0 +1,13 @@
+-- Every user's email with its owner, so an address is unique across all shards and not only within one. Users
+-- claim their address here before their row is written. Like shard_placements, only the first shard's table is used
+-- when sharding is enabled; ShardDirectory adds the users of the other shards at startup.
+CREATE TABLE IF NOT EXISTS user_emails (
+    owner_id bigint PRIMARY KEY,
+    email    varchar(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_user_emails_email_lower ON user_emails (lower(email));
+
+INSERT INTO user_emails (owner_id, email)
+SELECT id, email FROM users WHERE email IS NOT NULL
+ON CONFLICT DO NOTHING;
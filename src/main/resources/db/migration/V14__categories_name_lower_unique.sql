@@ -0,0 +1,4 @@
+-- Category names are unique per owner regardless of case, matching the check CategoryService makes before
+-- writing. Fails if an owner already has names that differ only by case; rename those first.
+ALTER TABLE categories DROP CONSTRAINT uk_categories_owner_id_name;
+CREATE UNIQUE INDEX uk_categories_owner_id_name_lower ON categories (owner_id, lower(name));
@@ -0,0 +1,30 @@
+-- Schema of the last release, as Hibernate's ddl-auto=update created it from the entities of the time. Every
+-- statement is guarded with IF NOT EXISTS, so databases created by that mode are adopted as they are (see
+-- spring.flyway.baseline-on-migrate) and only fresh ones are built from here. The versions that follow move both
+-- forward to the current schema. Later changes belong in new versions, never in this file.
+
+CREATE TABLE IF NOT EXISTS users (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          varchar(255),
+    last_name     varchar(255),
+    email         varchar(255),
+    password      varchar(255),
+    date_of_birth date,
+    profile_url   varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS expenses (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       varchar(255),
+    description varchar(255),
+    value       double precision,
+    owner_id    bigint NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS incomes (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       varchar(255),
+    description varchar(255),
+    value       double precision,
+    owner_id    bigint NOT NULL REFERENCES users (id)
+);
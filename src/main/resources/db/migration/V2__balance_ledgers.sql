@@ -0,0 +1,9 @@
+-- One row per owner with running totals that every expense and income write adjusts. Owners without a row get one
+-- rebuilt from their transactions on first read, so existing databases need no backfill here.
+CREATE TABLE balance_ledgers (
+    owner_id             bigint PRIMARY KEY,
+    total_incomes_minor  bigint NOT NULL,
+    total_expenses_minor bigint NOT NULL,
+    net_minor            bigint NOT NULL,
+    version              bigint NOT NULL
+);
@@ -0,0 +1,4 @@
+-- owner_id leads every transaction index, so findAllViewsByOwnerId, sumByOwnerId and the keyset pages
+-- are all served by index scans without a separate single-column owner_id index.
+CREATE INDEX idx_expenses_owner_id_id ON expenses (owner_id, id);
+CREATE INDEX idx_incomes_owner_id_id ON incomes (owner_id, id);
@@ -0,0 +1,15 @@
+-- Amounts move from the floating point value column to integer minor units with a currency. Every existing amount
+-- was entered in dollars; a missing one becomes zero rather than failing the NOT NULL.
+ALTER TABLE expenses ADD COLUMN amount_minor bigint, ADD COLUMN currency varchar(3);
+UPDATE expenses SET amount_minor = coalesce(round(value::numeric * 100), 0), currency = 'USD';
+ALTER TABLE expenses
+    ALTER COLUMN amount_minor SET NOT NULL,
+    ALTER COLUMN currency SET NOT NULL,
+    DROP COLUMN value;
+
+ALTER TABLE incomes ADD COLUMN amount_minor bigint, ADD COLUMN currency varchar(3);
+UPDATE incomes SET amount_minor = coalesce(round(value::numeric * 100), 0), currency = 'USD';
+ALTER TABLE incomes
+    ALTER COLUMN amount_minor SET NOT NULL,
+    ALTER COLUMN currency SET NOT NULL,
+    DROP COLUMN value;
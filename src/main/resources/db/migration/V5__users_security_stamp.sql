@@ -0,0 +1,2 @@
+-- Rotated when a user's credentials change; tokens carry the stamp they were issued with.
+ALTER TABLE users ADD COLUMN security_stamp bigint DEFAULT 0 NOT NULL;
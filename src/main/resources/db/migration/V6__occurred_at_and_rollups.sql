@@ -0,0 +1,19 @@
+-- When each transaction happened, and per-owner income and expense totals for every UTC day and month. Existing
+-- rows take the migration time. Their ledgers start with rollups_ready false, so BalanceRollupBackfillJob
+-- builds their buckets on the next start.
+ALTER TABLE expenses ADD COLUMN occurred_at timestamp(6) with time zone DEFAULT now() NOT NULL;
+ALTER TABLE incomes ADD COLUMN occurred_at timestamp(6) with time zone DEFAULT now() NOT NULL;
+CREATE INDEX idx_expenses_owner_id_occurred_at ON expenses (owner_id, occurred_at);
+CREATE INDEX idx_incomes_owner_id_occurred_at ON incomes (owner_id, occurred_at);
+
+ALTER TABLE balance_ledgers ADD COLUMN rollups_ready boolean DEFAULT false NOT NULL;
+
+CREATE TABLE balance_rollups (
+    owner_id       bigint     NOT NULL,
+    granularity    varchar(5) NOT NULL CHECK (granularity IN ('DAY', 'MONTH')),
+    bucket_start   date       NOT NULL,
+    incomes_minor  bigint     NOT NULL,
+    expenses_minor bigint     NOT NULL,
+    PRIMARY KEY (owner_id, granularity, bucket_start)
+);
+CREATE INDEX idx_balance_rollups_owner_id_bucket ON balance_rollups (owner_id, granularity, bucket_start);
@@ -0,0 +1,2 @@
+-- Bumped by every write to a user's data; the ETags of their reads are derived from it.
+ALTER TABLE users ADD COLUMN data_version bigint DEFAULT 0 NOT NULL;
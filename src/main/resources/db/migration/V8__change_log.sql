@@ -0,0 +1,14 @@
+-- Per-owner feed of transaction upserts and deletes served by GET /sync. sync_horizon is the oldest version a
+-- cursor may still start from once ChangeLogCompactionJob has dropped older entries.
+ALTER TABLE users ADD COLUMN sync_horizon bigint DEFAULT 0 NOT NULL;
+
+CREATE TABLE change_log (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id    bigint     NOT NULL,
+    version     bigint     NOT NULL,
+    entity_type varchar(7) NOT NULL CHECK (entity_type IN ('EXPENSE', 'INCOME')),
+    entity_id   bigint     NOT NULL,
+    operation   varchar(6) NOT NULL CHECK (operation IN ('UPSERT', 'DELETE')),
+    changed_at  timestamp(6) with time zone DEFAULT now() NOT NULL
+);
+CREATE INDEX idx_change_log_owner_id_id ON change_log (owner_id, id);
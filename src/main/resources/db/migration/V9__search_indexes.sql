@@ -0,0 +1,18 @@
+-- Full-text and trigram search over transaction titles and descriptions. The generated tsvector columns are
+-- not mapped by the entities, which schema validation tolerates. The stored vector spares
+-- every search from re-parsing the text, btree_gin lets owner_id share each index, and the trigram
+-- expression must match the one used by the search queries.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(description, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_expenses_search_vector ON expenses USING gin (owner_id, search_vector);
+CREATE INDEX IF NOT EXISTS idx_expenses_search_trgm ON expenses
+    USING gin (owner_id, (coalesce(title, '') || ' ' || coalesce(description, '')) gin_trgm_ops);
+
+ALTER TABLE incomes ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(description, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_incomes_search_vector ON incomes USING gin (owner_id, search_vector);
+CREATE INDEX IF NOT EXISTS idx_incomes_search_trgm ON incomes
+    USING gin (owner_id, (coalesce(title, '') || ' ' || coalesce(description, '')) gin_trgm_ops);
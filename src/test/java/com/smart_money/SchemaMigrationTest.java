@@ -0,0 +1,104 @@
+package com.smart_money;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by the last release's ddl-auto=update has to end up with the same schema as a fresh one, with
+ * its floating point amounts carried over into minor units.
+ */
+class SchemaMigrationTest {
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void upgradesADatabaseFromTheLastReleaseToTheFreshSchema() {
+        DataSource fresh = createDatabase("fresh");
+        migrate(fresh);
+
+        DataSource released = createDatabase("released");
+        JdbcTemplate jdbc = new JdbcTemplate(released);
+        // The statements Hibernate issued for the entities of the last release.
+        jdbc.execute("create table users (id bigint generated by default as identity, date_of_birth date, " +
+                "email varchar(255), last_name varchar(255), name varchar(255), password varchar(255), " +
+                "profile_url varchar(255), primary key (id))");
+        jdbc.execute("create table expenses (value float(53), id bigint generated by default as identity, " +
+                "owner_id bigint not null, description varchar(255), title varchar(255), primary key (id))");
+        jdbc.execute("create table incomes (value float(53), id bigint generated by default as identity, " +
+                "owner_id bigint not null, description varchar(255), title varchar(255), primary key (id))");
+        jdbc.execute("alter table if exists expenses add constraint FKl6m6l2dcq6cbqn0s1mw3vuxs0 " +
+                "foreign key (owner_id) references users");
+        jdbc.execute("alter table if exists incomes add constraint FK3awr1qvq1xmb0dw4bqm58wvbm " +
+                "foreign key (owner_id) references users");
+        long ownerId = jdbc.queryForObject("INSERT INTO users (name, email, password) " +
+                "VALUES ('Ana', 'ana@example.com', 'hash') RETURNING id", Long.class);
+        jdbc.update("INSERT INTO expenses (title, value, owner_id) VALUES ('coffee', 19.99, ?), ('sum', 0.1 + 0.2, ?), " +
+                "('unknown', NULL, ?)", ownerId, ownerId, ownerId);
+        jdbc.update("INSERT INTO incomes (title, value, owner_id) VALUES ('salary', 2500.005, ?)", ownerId);
+
+        migrate(released);
+
+        assertThat(jdbc.queryForList("SELECT title, amount_minor, currency FROM expenses ORDER BY id"))
+                .containsExactly(
+                        Map.of("title", "coffee", "amount_minor", 1999L, "currency", "USD"),
+                        Map.of("title", "sum", "amount_minor", 30L, "currency", "USD"),
+                        Map.of("title", "unknown", "amount_minor", 0L, "currency", "USD"));
+        assertThat(jdbc.queryForObject("SELECT amount_minor FROM incomes", Long.class)).isEqualTo(250001L);
+        assertThat(columns(released)).isEqualTo(columns(fresh));
+        assertThat(indexes(released)).isEqualTo(indexes(fresh));
+    }
+
+    private static DataSource createDatabase(String name) {
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + name);
+        return postgres.getDatabase("postgres", name);
+    }
+
+    /**
+     * Migrates the way the application does, see spring.flyway.* in application.properties.
+     */
+    private static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    /**
+     * Columns with their types, by table and name; Hibernate orders columns differently than the migrations do.
+     */
+    private static List<String> columns(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("""
+                SELECT table_name || '.' || column_name || ' ' || data_type FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name <> 'flyway_schema_history'
+                ORDER BY table_name, column_name""", String.class);
+    }
+
+    private static List<String> indexes(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("""
+                SELECT indexname FROM pg_indexes
+                WHERE schemaname = current_schema() AND tablename <> 'flyway_schema_history'
+                ORDER BY indexname""", String.class);
+    }
+}
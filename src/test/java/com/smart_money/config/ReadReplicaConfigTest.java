@@ -0,0 +1,116 @@
+package com.smart_money.config;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.model.User;
+import com.smart_money.security.CustomUserDetails;
+import com.smart_money.service.UserDataVersionService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the application with a replica on a second embedded server and checks which server each kind of
+ * transaction runs on. The replica is not replicating, so it only needs to answer queries, not hold the schema.
+ */
+class ReadReplicaConfigTest extends EmbeddedPostgresTest {
+    private static final EmbeddedPostgres REPLICA = start();
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        registry.add("datasource.replica-urls", () -> REPLICA.getJdbcUrl("postgres", "postgres"));
+        registry.add("datasource.routing.read-your-writes", () -> "1h");
+        registry.add("spring.datasource.hikari.minimum-idle", () -> "1");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "5");
+    }
+
+    @AfterAll
+    static void stopReplica() throws IOException {
+        REPLICA.close();
+    }
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sendsReadOnlyTransactionsToTheReplicaAndTheRestToThePrimary() throws InterruptedException {
+        awaitReplicaInRotation();
+
+        assertThat(portOf(false)).isEqualTo(POSTGRES.getPort());
+        assertThat(portOf(true)).isEqualTo(REPLICA.getPort());
+    }
+
+    @Test
+    void keepsAUsersReadsOnThePrimaryAfterTheyWrite() throws InterruptedException {
+        awaitReplicaInRotation();
+        long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Replica', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+        authenticate(userId);
+        assertThat(portOf(true)).isEqualTo(REPLICA.getPort());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userDataVersionService.bump(userId));
+
+        assertThat(portOf(true)).isEqualTo(POSTGRES.getPort());
+        authenticate(userId + 1);
+        assertThat(portOf(true)).as("another user").isEqualTo(REPLICA.getPort());
+    }
+
+    /**
+     * Replicas join once the first health check has passed, which runs in the background after startup.
+     */
+    private void awaitReplicaInRotation() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (portOf(true) != REPLICA.getPort() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private int portOf(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                jdbcTemplate.queryForObject("SELECT current_setting('port')::int", Integer.class));
+    }
+
+    private static void authenticate(long userId) {
+        User user = new User();
+        user.setId(userId);
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.smart_money.config;
+
+import com.smart_money.model.User;
+import com.smart_money.security.CustomUserDetails;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the routing against a primary server and a second server holding the replica databases. The replicas are
+ * not replicating, so their lag reads as zero; which database answered tells where a connection was routed. Health
+ * checks are run by the tests themselves, except where the scheduled check is under test.
+ */
+class ReplicaRoutingDataSourceTest {
+    private static final Duration CHECK_INTERVAL = Duration.ofHours(1);
+
+    private static EmbeddedPostgres primaryServer;
+    private static EmbeddedPostgres replicaServer;
+
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        primaryServer = EmbeddedPostgres.builder().start();
+        replicaServer = EmbeddedPostgres.builder().start();
+        JdbcTemplate admin = new JdbcTemplate(replicaServer.getPostgresDatabase());
+        admin.execute("CREATE DATABASE replica_a");
+        admin.execute("CREATE DATABASE replica_b");
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        primaryServer.close();
+        replicaServer.close();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        SecurityContextHolder.clearContext();
+        for (AutoCloseable closeable : closeables.reversed()) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void readsFromAReplicaThatPassedTheHealthCheck() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, replica("replica_a"));
+        routing.checkHealth();
+
+        assertThat(databaseOf(routing)).isEqualTo("replica_a");
+    }
+
+    @Test
+    void takesHealthyReplicasInTurn() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, replica("replica_a"), replica("replica_b"));
+        routing.checkHealth();
+
+        List<String> databases = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            databases.add(databaseOf(routing));
+        }
+
+        assertThat(databases).containsExactly("replica_a", "replica_b", "replica_a", "replica_b");
+    }
+
+    @Test
+    void takesTheReplicaWithTheFewestActiveConnections() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.LEAST_CONNECTIONS,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, replica("replica_a"), replica("replica_b"));
+        routing.checkHealth();
+
+        try (Connection first = routing.getConnection()) {
+            assertThat(databaseOf(first)).isEqualTo("replica_a");
+            try (Connection second = routing.getConnection()) {
+                assertThat(databaseOf(second)).isEqualTo("replica_b");
+                try (Connection third = routing.getConnection()) {
+                    assertThat(databaseOf(third)).isEqualTo("replica_a");
+                }
+            }
+            // replica_a still holds the first connection.
+            assertThat(databaseOf(routing)).isEqualTo("replica_b");
+        }
+    }
+
+    @Test
+    void skipsUnreachableReplicasAndFallsBackToThePrimaryWithoutAny() throws SQLException {
+        ReplicaRoutingDataSource skipping = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, unreachableReplica(), replica("replica_b"));
+        skipping.checkHealth();
+        ReplicaRoutingDataSource fallingBack = routing(ReplicaRoutingDataSource.Selection.LEAST_CONNECTIONS,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, unreachableReplica());
+        fallingBack.checkHealth();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(databaseOf(skipping)).isEqualTo("replica_b");
+        }
+        assertThat(databaseOf(fallingBack)).isEqualTo("postgres");
+    }
+
+    @Test
+    void failsOverToThePrimaryWhenTheChosenReplicaStopsAndTakesItOutOfRotation() throws IOException, SQLException {
+        EmbeddedPostgres stopping = EmbeddedPostgres.builder().start();
+        HikariDataSource replica = pool(stopping.getJdbcUrl("postgres", "postgres"));
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, replica);
+        routing.checkHealth();
+        assertThat(portOf(routing)).isEqualTo(stopping.getPort());
+
+        stopping.close();
+        replica.getHikariPoolMXBean().softEvictConnections();
+
+        assertThat(portOf(routing)).isEqualTo(primaryServer.getPort());
+        // Marked down by the failed attempt, so the next read does not wait for the connection timeout again.
+        long startedAt = System.nanoTime();
+        assertThat(portOf(routing)).isEqualTo(primaryServer.getPort());
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void putsReplicasIntoRotationFromTheScheduledCheck() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker(Duration.ofMinutes(1)), Duration.ofMillis(50), replica("replica_a"));
+        assertThat(databaseOf(routing)).as("before any check").isEqualTo("postgres");
+
+        routing.start();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        String database = databaseOf(routing);
+        while (!database.equals("replica_a") && System.nanoTime() < deadline) {
+            database = databaseOf(routing);
+        }
+
+        assertThat(database).as("after a scheduled health check").isEqualTo("replica_a");
+    }
+
+    @Test
+    void keepsAUsersReadsOnThePrimaryForTheWindowAfterTheirWrite() throws Exception {
+        ReadYourWritesTracker tracker = tracker(Duration.ofMillis(300));
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker, CHECK_INTERVAL, replica("replica_a"));
+        routing.checkHealth();
+
+        authenticate(7L);
+        assertThat(databaseOf(routing)).isEqualTo("replica_a");
+
+        tracker.recordWrite(7L);
+        assertThat(databaseOf(routing)).isEqualTo("postgres");
+        authenticate(8L);
+        assertThat(databaseOf(routing)).as("another user").isEqualTo("replica_a");
+        SecurityContextHolder.clearContext();
+        assertThat(databaseOf(routing)).as("no user").isEqualTo("replica_a");
+
+        authenticate(7L);
+        Thread.sleep(400);
+        assertThat(databaseOf(routing)).as("after the window").isEqualTo("replica_a");
+    }
+
+    @Test
+    void leavesExplicitCredentialsToThePrimary() {
+        ReplicaRoutingDataSource routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                tracker(Duration.ofMinutes(1)), CHECK_INTERVAL, replica("replica_a"));
+        routing.checkHealth();
+
+        // Hikari pools refuse per-call credentials, so this answers exactly as the primary pool would.
+        assertThatThrownBy(() -> routing.getConnection("postgres", "postgres"))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private ReplicaRoutingDataSource routing(ReplicaRoutingDataSource.Selection selection, ReadYourWritesTracker tracker,
+                                             Duration checkInterval, HikariDataSource... replicas) {
+        HikariDataSource primary = pool(primaryServer.getJdbcUrl("postgres", "postgres"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replicas), selection,
+                tracker, Duration.ofSeconds(5), checkInterval);
+        closeables.add(routing);
+        return routing;
+    }
+
+    private static ReadYourWritesTracker tracker(Duration window) {
+        return new ReadYourWritesTracker(window, 100);
+    }
+
+    private HikariDataSource replica(String database) {
+        return pool(replicaServer.getJdbcUrl("postgres", database));
+    }
+
+    /**
+     * A replica on a port nothing listens on.
+     */
+    private HikariDataSource unreachableReplica() {
+        return pool("jdbc:postgresql://localhost:1/postgres");
+    }
+
+    private HikariDataSource pool(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("postgres");
+        pool.setPassword("postgres");
+        pool.setMaximumPoolSize(3);
+        pool.setMinimumIdle(0);
+        pool.setConnectionTimeout(1000);
+        pool.setInitializationFailTimeout(-1);
+        closeables.add(pool);
+        return pool;
+    }
+
+    private static void authenticate(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static String databaseOf(ReplicaRoutingDataSource routing) throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return databaseOf(connection);
+        }
+    }
+
+    private static int portOf(ReplicaRoutingDataSource routing) throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return Integer.parseInt(query(connection, "SELECT current_setting('port')"));
+        }
+    }
+
+    private static String databaseOf(Connection connection) throws SQLException {
+        return query(connection, "SELECT current_database()");
+    }
+
+    private static String query(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.smart_money.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each shard must hand out ids of its own residue modulo the stride, above every id in use on any shard, so rows
+ * keep their ids when an owner moves.
+ */
+class ShardIdInterleavingTest {
+    private static final int STRIDE = 8;
+    private static final List<String> TABLES = List.of("categories", "expenses", "incomes", "change_log");
+
+    private static EmbeddedPostgres postgres;
+    private static ShardDirectory shardDirectory;
+
+    @BeforeAll
+    static void startShards() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        Map<String, HikariDataSource> shards = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            String database = "interleave_" + i;
+            new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + database);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(postgres.getJdbcUrl("postgres", database));
+            dataSource.setUsername("postgres");
+            dataSource.setPassword("postgres");
+            dataSource.setMaximumPoolSize(2);
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            shards.put("shard-" + i, dataSource);
+        }
+        shardDirectory = new ShardDirectory(new ShardRing(List.copyOf(shards.keySet()), 16), shards, Duration.ofSeconds(1));
+    }
+
+    @AfterAll
+    static void stopShards() throws IOException {
+        shardDirectory.close();
+        postgres.close();
+    }
+
+    @Test
+    void givesEveryShardItsOwnResidueAboveTheIdsInUse() {
+        // Ids already taken before the shards are interleaved, more of them on the second shard.
+        insertRows("shard-0", 3);
+        insertRows("shard-1", 11);
+        long highest = highestId();
+
+        ShardingConfig.interleaveIds(shardDirectory, STRIDE);
+        Map<String, Map<String, List<Long>>> first = insertRows(3);
+        // A second startup finds the shards on the stride already and leaves their sequences alone.
+        ShardingConfig.interleaveIds(shardDirectory, STRIDE);
+        Map<String, Map<String, List<Long>>> second = insertRows(3);
+
+        for (String shard : shardDirectory.shardNames()) {
+            int residue = shardDirectory.shardNames().indexOf(shard);
+            for (String table : TABLES) {
+                List<Long> firstIds = first.get(shard).get(table);
+                List<Long> secondIds = second.get(shard).get(table);
+                assertThat(firstIds).as("%s on %s", table, shard)
+                        .allSatisfy(id -> assertThat(Math.floorMod(id, STRIDE)).isEqualTo(residue))
+                        .allSatisfy(id -> assertThat(id).isGreaterThan(highest));
+                assertThat(secondIds).as("%s on %s after a restart", table, shard)
+                        .allSatisfy(id -> assertThat(Math.floorMod(id, STRIDE)).isEqualTo(residue))
+                        .allSatisfy(id -> assertThat(id).isGreaterThan(firstIds.getLast()));
+            }
+        }
+    }
+
+    private static long highestId() {
+        long highest = 0;
+        for (String shard : shardDirectory.shardNames()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shardDirectory.dataSource(shard));
+            for (String table : TABLES) {
+                highest = Math.max(highest, jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class));
+            }
+        }
+        return highest;
+    }
+
+    private static Map<String, Map<String, List<Long>>> insertRows(int rows) {
+        Map<String, Map<String, List<Long>>> ids = new LinkedHashMap<>();
+        for (String shard : shardDirectory.shardNames()) {
+            ids.put(shard, insertRows(shard, rows));
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts rows with generated ids into every table of the shard, under a fresh owner, and returns the ids.
+     */
+    private static Map<String, List<Long>> insertRows(String shard, int rows) {
+        JdbcTemplate jdbc = new JdbcTemplate(shardDirectory.dataSource(shard));
+        long ownerId = shardDirectory.allocateOwnerId();
+        jdbc.update("INSERT INTO users (id, name, email) VALUES (?, 'Shard', ?)", ownerId, "owner-" + ownerId + "@example.com");
+
+        Map<String, List<Long>> ids = new LinkedHashMap<>();
+        for (String table : TABLES) {
+            String insert = switch (table) {
+                case "categories" -> "INSERT INTO categories (name, owner_id) VALUES ('category-' || gen_random_uuid(), ?) RETURNING id";
+                case "change_log" -> "INSERT INTO change_log (owner_id, version, entity_type, entity_id, operation) " +
+                        "VALUES (?, 1, 'EXPENSE', 1, 'UPSERT') RETURNING id";
+                default -> "INSERT INTO " + table + " (title, amount_minor, currency, owner_id) VALUES ('row', 1, 'USD', ?) RETURNING id";
+            };
+            ids.put(table, IntStream.range(0, rows)
+                    .mapToObj(i -> jdbc.queryForObject(insert, Long.class, ownerId))
+                    .toList());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,59 @@
+package com.smart_money.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRingTest {
+    private static final int OWNERS = 100_000;
+
+    @Test
+    void placesTheSameOwnerOnTheSameShardEveryTime() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ShardRing rebuilt = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+
+        for (long ownerId = 1; ownerId <= OWNERS; ownerId++) {
+            assertThat(rebuilt.shardFor(ownerId)).isEqualTo(ring.shardFor(ownerId));
+        }
+    }
+
+    @Test
+    void appendingAShardOnlyMovesOwnersOntoIt() {
+        ShardRing before = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ShardRing after = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+
+        int moved = 0;
+        for (long ownerId = 1; ownerId <= OWNERS; ownerId++) {
+            String shard = after.shardFor(ownerId);
+            if (!shard.equals(before.shardFor(ownerId))) {
+                assertThat(shard).as("new shard of owner %d", ownerId).isEqualTo("shard-3");
+                moved++;
+            }
+        }
+        // About a quarter of the owners, the new shard's fair share.
+        assertThat(moved).isBetween(OWNERS / 4 - OWNERS / 10, OWNERS / 4 + OWNERS / 10);
+    }
+
+    @Test
+    void spreadsOwnersEvenly() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+
+        Map<String, Integer> owners = new HashMap<>();
+        for (long ownerId = 1; ownerId <= OWNERS; ownerId++) {
+            owners.merge(ring.shardFor(ownerId), 1, Integer::sum);
+        }
+        assertThat(owners).hasSize(4);
+        assertThat(owners.values()).allSatisfy(count ->
+                assertThat(count).isBetween(OWNERS / 4 - OWNERS / 10, OWNERS / 4 + OWNERS / 10));
+    }
+
+    @Test
+    void requiresAShard() {
+        assertThatThrownBy(() -> new ShardRing(List.of(), 128)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.smart_money.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketRateLimiterTest {
+    private static final String KEY = "203.0.113.7";
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    /**
+     * Five tokens per minute, one every twelve seconds.
+     */
+    private TokenBucketRateLimiter limiter() {
+        return new TokenBucketRateLimiter(5, Duration.ofMinutes(1), 1000, now::get);
+    }
+
+    @Test
+    void allowsAFullBurstThenRejects() {
+        TokenBucketRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(KEY)).as("take %d", i + 1).isZero();
+        }
+        assertThat(limiter.tryAcquire(KEY)).isPositive();
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        TokenBucketRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(KEY);
+        }
+
+        assertThat(limiter.tryAcquire(KEY)).isPositive();
+        assertThat(limiter.tryAcquire("198.51.100.1")).isZero();
+    }
+
+    @Test
+    void reportsTheWaitUntilTheNextToken() {
+        TokenBucketRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(KEY);
+        }
+
+        assertThat(limiter.tryAcquire(KEY)).isEqualTo(Duration.ofSeconds(12).toNanos());
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(limiter.tryAcquire(KEY)).isEqualTo(Duration.ofSeconds(7).toNanos());
+    }
+
+    @Test
+    void rejectedTakesDoNotConsumeTokens() {
+        TokenBucketRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(KEY);
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(KEY);
+        }
+
+        now.addAndGet(Duration.ofSeconds(12).toNanos());
+        assertThat(limiter.tryAcquire(KEY)).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        TokenBucketRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(KEY);
+        }
+
+        now.addAndGet(Duration.ofSeconds(12).toNanos() - 1);
+        assertThat(limiter.tryAcquire(KEY)).isEqualTo(1);
+        now.incrementAndGet();
+        assertThat(limiter.tryAcquire(KEY)).isZero();
+        assertThat(limiter.tryAcquire(KEY)).isPositive();
+    }
+
+    @Test
+    void refillsTheWholeBurstAfterAnIdlePeriod() {
+        TokenBucketRateLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(KEY);
+        }
+
+        // Idling longer than a full refill never banks more than the capacity.
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(KEY)).as("take %d", i + 1).isZero();
+        }
+        assertThat(limiter.tryAcquire(KEY)).isPositive();
+    }
+
+    @Test
+    void concurrentTakesNeverExceedTheCapacity() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, Duration.ofMinutes(1), 1000, now::get);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> allowed = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                allowed.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire(KEY) == 0) count++;
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> future : allowed) {
+                total += future.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(0, Duration.ofMinutes(1), 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(5, Duration.ZERO, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
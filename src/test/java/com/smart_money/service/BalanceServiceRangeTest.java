@@ -0,0 +1,132 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.request.balance.BalanceRange;
+import com.smart_money.dto.response.balance.BalanceRangeDTO;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The ranged balance is stitched together from month buckets, day buckets and the partial days at either end;
+ * whatever the split, it has to match a plain SUM over the same half-open range.
+ */
+class BalanceServiceRangeTest extends EmbeddedPostgresTest {
+    private static final Instant FIRST = Instant.parse("2023-12-20T00:00:00Z");
+    private static final Instant LAST = Instant.parse("2024-04-10T00:00:00Z");
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Range', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+
+        // Every five hours so rows fall on every hour of the day over time, including the UTC midnights.
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> incomes = new ArrayList<>();
+        int i = 0;
+        for (Instant at = FIRST; at.isBefore(LAST); at = at.plus(Duration.ofHours(5)), i++) {
+            expenses.add(new Object[]{100L + i % 97, Timestamp.from(at), userId});
+            if (i % 3 == 0) incomes.add(new Object[]{1000L + i % 13, Timestamp.from(at.plusSeconds(1)), userId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (title, amount_minor, currency, occurred_at, owner_id) "
+                + "VALUES ('expense', ?, 'USD', ?, ?)", expenses);
+        jdbcTemplate.batchUpdate("INSERT INTO incomes (title, amount_minor, currency, occurred_at, owner_id) "
+                + "VALUES ('income', ?, 'USD', ?, ?)", incomes);
+    }
+
+    @ParameterizedTest(name = "[{0}, {1})")
+    @CsvSource({
+            // Inside a single day.
+            "2024-01-15T03:00:00Z, 2024-01-15T21:30:00Z",
+            // Two partial days and no full day between them.
+            "2024-01-15T12:00:00Z, 2024-01-16T12:00:00Z",
+            // Whole days that stay inside one month.
+            "2024-01-10T00:00:00Z, 2024-01-12T00:00:00Z",
+            // Exactly one whole month.
+            "2024-02-01T00:00:00Z, 2024-03-01T00:00:00Z",
+            // Several whole months.
+            "2024-01-01T00:00:00Z, 2024-04-01T00:00:00Z",
+            // Partial days, whole days and a whole month across two month boundaries.
+            "2024-01-20T10:00:00Z, 2024-03-05T07:30:00Z",
+            // Across a month boundary without a whole month.
+            "2024-01-25T05:00:00Z, 2024-02-03T19:00:00Z",
+            // Across the year boundary.
+            "2023-12-28T17:00:00Z, 2024-01-02T01:00:00Z",
+            // Starting on a midnight and ending mid-day in a later month.
+            "2024-02-01T00:00:00Z, 2024-03-15T11:00:00Z",
+            // Wider than the data.
+            "2023-01-01T00:00:00Z, 2025-01-01T00:00:00Z",
+            // Empty.
+            "2024-01-15T10:00:00Z, 2024-01-15T10:00:00Z",
+    })
+    void matchesARawSumOverTheSameRange(Instant from, Instant to) {
+        assertMatchesRawSum(from, to);
+    }
+
+    @Test
+    void matchesARawSumAfterIncrementalChanges() {
+        balanceService.calculateBalanceByUserId(userId, new BalanceRange(FIRST, LAST));
+
+        // Land on a midnight, mid-day and the last instant of a month, then remove a seeded row.
+        addExpense(Instant.parse("2024-02-01T00:00:00Z"), 777);
+        addExpense(Instant.parse("2024-02-14T13:37:00Z"), 12_345);
+        addExpense(Instant.parse("2024-02-29T23:59:59.999999Z"), 5);
+        Map<String, Object> removed = jdbcTemplate.queryForMap("""
+                DELETE FROM expenses WHERE id = (
+                    SELECT id FROM expenses WHERE owner_id = ? AND occurred_at >= ? ORDER BY occurred_at LIMIT 1)
+                RETURNING amount_minor, occurred_at""", userId, Timestamp.from(Instant.parse("2024-02-10T00:00:00Z")));
+        balanceService.recordChange(TransactionType.EXPENSE, userId,
+                ((Timestamp) removed.get("occurred_at")).toInstant(), -(Long) removed.get("amount_minor"));
+
+        assertMatchesRawSum(Instant.parse("2024-02-01T00:00:00Z"), Instant.parse("2024-03-01T00:00:00Z"));
+        assertMatchesRawSum(Instant.parse("2024-01-31T12:00:00Z"), Instant.parse("2024-03-01T00:00:00.000001Z"));
+        assertMatchesRawSum(Instant.parse("2024-02-14T13:37:00Z"), Instant.parse("2024-02-14T13:37:00.000001Z"));
+    }
+
+    private void addExpense(Instant at, long amountMinor) {
+        jdbcTemplate.update("INSERT INTO expenses (title, amount_minor, currency, occurred_at, owner_id) "
+                + "VALUES ('expense', ?, 'USD', ?, ?)", amountMinor, Timestamp.from(at), userId);
+        balanceService.recordChange(TransactionType.EXPENSE, userId, at, amountMinor);
+    }
+
+    private void assertMatchesRawSum(Instant from, Instant to) {
+        long incomes = rawSum("incomes", from, to);
+        long expenses = rawSum("expenses", from, to);
+
+        BalanceRangeDTO balance = balanceService.calculateBalanceByUserId(userId, new BalanceRange(from, to));
+
+        assertThat(balance.totalIncomes()).as("incomes").isEqualByComparingTo(Money.toDecimal(incomes));
+        assertThat(balance.totalExpenses()).as("expenses").isEqualByComparingTo(Money.toDecimal(expenses));
+        assertThat(balance.netBalance()).as("net").isEqualByComparingTo(Money.toDecimal(incomes - expenses));
+    }
+
+    private long rawSum(String table, Instant from, Instant to) {
+        return jdbcTemplate.queryForObject("SELECT coalesce(sum(amount_minor), 0) FROM " + table
+                        + " WHERE owner_id = ? AND occurred_at >= ? AND occurred_at < ?",
+                Long.class, userId, Timestamp.from(from), Timestamp.from(to));
+    }
+}
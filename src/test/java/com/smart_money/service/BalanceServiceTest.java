@@ -0,0 +1,140 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.request.expenses.UpdateExpenseDTO;
+import com.smart_money.model.Expense;
+import com.smart_money.model.Income;
+import com.smart_money.model.Money;
+import com.smart_money.model.User;
+import com.smart_money.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The ledger is kept up by deltas from every write, and has to agree with the transaction tables after each one;
+ * a ledger that is missing or has drifted is rebuilt from them.
+ */
+class BalanceServiceTest extends EmbeddedPostgresTest {
+    private static final Instant JAN_5 = Instant.parse("2024-01-05T10:00:00Z");
+    private static final Instant FEB_7 = Instant.parse("2024-02-07T23:30:00Z");
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+
+    @BeforeEach
+    void createOwner() {
+        ownerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Ledger', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+
+    @Test
+    void appliesTheDeltaOfEveryWriteToTheTotalsAndTheRollups() {
+        balanceService.rebuildRollups(ownerId);
+        User owner = userRepository.findById(ownerId).orElseThrow();
+
+        Expense coffee = expenseService.createExpense(
+                new Expense("coffee", null, Money.of(new BigDecimal("12.34")), JAN_5, owner), null);
+        incomeService.createIncome(new Income("salary", null, Money.of(new BigDecimal("100.00")), JAN_5, owner), null);
+        assertLedger(10000, 1234);
+        assertThat(dayBucket(LocalDate.of(2024, 1, 5))).containsEntry("expenses_minor", 1234L).containsEntry("incomes_minor", 10000L);
+
+        // Moves the expense to another month as well as changing its amount.
+        expenseService.updateExpense(coffee.getId(), ownerId,
+                new UpdateExpenseDTO(null, null, new BigDecimal("20.00"), FEB_7, null, false));
+        assertLedger(10000, 2000);
+        assertThat(dayBucket(LocalDate.of(2024, 1, 5))).containsEntry("expenses_minor", 0L);
+        assertThat(dayBucket(LocalDate.of(2024, 2, 7))).containsEntry("expenses_minor", 2000L);
+        assertThat(monthBucket(LocalDate.of(2024, 2, 1))).containsEntry("expenses_minor", 2000L);
+
+        assertThat(expenseService.deleteExpense(coffee.getId(), ownerId)).isTrue();
+        assertLedger(10000, 0);
+        assertThat(monthBucket(LocalDate.of(2024, 2, 1))).containsEntry("expenses_minor", 0L);
+        assertThat(balanceService.reconcileBalance(ownerId)).isFalse();
+    }
+
+    @Test
+    void rebuildsAMissingLedgerFromTheTransactionsOnFirstRead() {
+        insertExpense(250, JAN_5);
+        insertExpense(750, FEB_7);
+
+        assertThat(balanceService.calculateBalanceByUserId(ownerId).getTotalExpenses()).isEqualByComparingTo("10.00");
+        assertLedger(0, 1000);
+    }
+
+    @Test
+    void leavesNoLedgerBehindForUnknownOwners() {
+        assertThat(balanceService.rebuildBalance(-ownerId).getTotalExpenses()).isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM balance_ledgers WHERE owner_id = ?",
+                Integer.class, -ownerId)).isZero();
+    }
+
+    @Test
+    void correctsDriftTogetherWithTheRollups() {
+        insertExpense(500, JAN_5);
+        balanceService.rebuildRollups(ownerId);
+        // Writes that bypassed the ledger, one of them in a month without a bucket yet.
+        insertExpense(300, JAN_5);
+        insertExpense(200, FEB_7);
+
+        assertThat(balanceService.reconcileBalance(ownerId)).isTrue();
+
+        assertLedger(0, 1000);
+        assertThat(dayBucket(LocalDate.of(2024, 1, 5))).containsEntry("expenses_minor", 800L);
+        assertThat(monthBucket(LocalDate.of(2024, 2, 1))).containsEntry("expenses_minor", 200L);
+        assertThat(balanceService.reconcileBalance(ownerId)).isFalse();
+    }
+
+    private void insertExpense(long amountMinor, Instant occurredAt) {
+        jdbcTemplate.update("INSERT INTO expenses (title, amount_minor, currency, occurred_at, owner_id) " +
+                "VALUES ('expense', ?, 'USD', ?, ?)", amountMinor, Timestamp.from(occurredAt), ownerId);
+    }
+
+    private void assertLedger(long incomesMinor, long expensesMinor) {
+        Map<String, Object> ledger = jdbcTemplate.queryForMap(
+                "SELECT total_incomes_minor, total_expenses_minor, net_minor FROM balance_ledgers WHERE owner_id = ?", ownerId);
+        assertThat(ledger).isEqualTo(Map.of("total_incomes_minor", incomesMinor, "total_expenses_minor", expensesMinor,
+                "net_minor", incomesMinor - expensesMinor));
+    }
+
+    private Map<String, Object> dayBucket(LocalDate day) {
+        return bucket("DAY", day);
+    }
+
+    private Map<String, Object> monthBucket(LocalDate month) {
+        return bucket("MONTH", month);
+    }
+
+    private Map<String, Object> bucket(String granularity, LocalDate start) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT incomes_minor, expenses_minor FROM balance_rollups " +
+                "WHERE owner_id = ? AND granularity = ? AND bucket_start = ?", ownerId, granularity, start);
+        assertThat(rows).as("%s bucket %s", granularity, start).hasSize(1);
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,143 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.response.category.CategoryDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Names are unique per owner regardless of case, both by the service's check and by the index behind it. A
+ * request that loses the race to the index must end in a conflict, not in a failed commit.
+ */
+class CategoryServiceTest extends EmbeddedPostgresTest {
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private long ownerId;
+
+    @BeforeEach
+    void createOwner() {
+        ownerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Category', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rejectsANameTakenInAnotherCase() {
+        CategoryDTO groceries = categoryService.createCategory(ownerId, "  Groceries ");
+        assertThat(groceries.name()).isEqualTo("Groceries");
+
+        assertThatThrownBy(() -> categoryService.createCategory(ownerId, "GROCERIES"))
+                .isInstanceOf(CategoryNameTakenException.class);
+        CategoryDTO rent = categoryService.createCategory(ownerId, "Rent");
+        assertThatThrownBy(() -> categoryService.renameCategory(rent.id(), ownerId, "groceries"))
+                .isInstanceOf(CategoryNameTakenException.class);
+        // Changing only the case of its own name is not a conflict.
+        assertThat(categoryService.renameCategory(rent.id(), ownerId, "RENT").name()).isEqualTo("RENT");
+    }
+
+    @Test
+    void letsOtherOwnersUseTheSameName() {
+        long otherOwnerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Other', 'Owner', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+
+        categoryService.createCategory(ownerId, "Travel");
+        assertThat(categoryService.createCategory(otherOwnerId, "travel").name()).isEqualTo("travel");
+    }
+
+    @Test
+    void reportsAConflictWhenAConcurrentCreateWinsTheIndex() throws Exception {
+        long before = dataVersion();
+
+        Throwable failure = raceAgainstUncommittedInsert("Groceries",
+                () -> categoryService.createCategory(ownerId, "groceries"));
+
+        assertThat(failure).isInstanceOf(CategoryNameTakenException.class);
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM categories WHERE owner_id = ?", String.class, ownerId))
+                .containsExactly("Groceries");
+        assertThat(dataVersion()).as("the failed create rolled back its bump").isEqualTo(before);
+    }
+
+    @Test
+    void reportsAConflictWhenAConcurrentCreateTakesTheNewName() throws Exception {
+        CategoryDTO rent = categoryService.createCategory(ownerId, "Rent");
+
+        Throwable failure = raceAgainstUncommittedInsert("Housing",
+                () -> categoryService.renameCategory(rent.id(), ownerId, "housing"));
+
+        assertThat(failure).isInstanceOf(CategoryNameTakenException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM categories WHERE id = ?", String.class, rent.id()))
+                .isEqualTo("Rent");
+    }
+
+    /**
+     * Holds an uncommitted insert of {@code name} while the write runs, so the write passes the service's check,
+     * then waits on the unique index and fails once the insert commits. Returns what the write threw.
+     */
+    private Throwable raceAgainstUncommittedInsert(String name, Supplier<CategoryDTO> write) throws Exception {
+        try (Connection blocker = POSTGRES.getPostgresDatabase().getConnection()) {
+            blocker.setAutoCommit(false);
+            try (PreparedStatement insert = blocker.prepareStatement(
+                    "INSERT INTO categories (name, owner_id) VALUES (?, ?)")) {
+                insert.setString(1, name);
+                insert.setLong(2, ownerId);
+                insert.executeUpdate();
+            }
+
+            Future<CategoryDTO> result = executor.submit(write::get);
+            awaitLockWait();
+            blocker.commit();
+
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                return null;
+            } catch (ExecutionException e) {
+                return e.getCause();
+            }
+        }
+    }
+
+    private void awaitLockWait() throws InterruptedException, SQLException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                    Integer.class);
+            if (waiting != null && waiting > 0) return;
+            Thread.sleep(10);
+        }
+        throw new SQLException("The write never waited on the uncommitted insert");
+    }
+
+    private long dataVersion() {
+        return jdbcTemplate.queryForObject("SELECT data_version FROM users WHERE id = ?", Long.class, ownerId);
+    }
+}
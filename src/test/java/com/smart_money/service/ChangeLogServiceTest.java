@@ -0,0 +1,134 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.config.ApiExceptionHandler;
+import com.smart_money.dto.request.expenses.UpdateExpenseDTO;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.income.IncomeDTO;
+import com.smart_money.dto.response.sync.SyncDTO;
+import com.smart_money.dto.response.sync.TombstoneDTO;
+import com.smart_money.model.Expense;
+import com.smart_money.model.Income;
+import com.smart_money.model.Money;
+import com.smart_money.model.TransactionType;
+import com.smart_money.model.User;
+import com.smart_money.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * A client that follows the cursor sees every change once, as the row's current state or a tombstone, and a
+ * client whose cursor predates compacted entries is told to reload instead of silently missing changes.
+ */
+class ChangeLogServiceTest extends EmbeddedPostgresTest {
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private ChangeLogCompactionJob changeLogCompactionJob;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User otherOwner;
+
+    @BeforeEach
+    void createOwners() {
+        owner = userRepository.findById(createUser()).orElseThrow();
+        otherOwner = userRepository.findById(createUser()).orElseThrow();
+    }
+
+    @Test
+    void returnsEachChangeSinceTheCursorOnceWithTheRowsCurrentState() {
+        long start = changeLogService.currentCursor(owner.getId());
+        Expense coffee = createExpense(owner, "coffee");
+        Expense rent = createExpense(owner, "rent");
+        Income salary = incomeService.createIncome(new Income("salary", null, Money.of(BigDecimal.TEN), owner), null);
+        createExpense(otherOwner, "not mine");
+        expenseService.updateExpense(coffee.getId(), owner.getId(),
+                new UpdateExpenseDTO("espresso", null, null, null, null, false));
+
+        SyncDTO first = changeLogService.changesSince(owner.getId(), start);
+
+        assertThat(first.expenses()).extracting(ExpenseDTO::title).containsExactlyInAnyOrder("espresso", "rent");
+        assertThat(first.incomes()).extracting(IncomeDTO::id).containsExactly(salary.getId());
+        assertThat(first.deleted()).isEmpty();
+        assertThat(first.hasMore()).isFalse();
+
+        long cursor = Long.parseLong(first.cursor());
+        assertThat(changeLogService.changesSince(owner.getId(), cursor)).isEqualTo(SyncDTO.empty(cursor));
+
+        expenseService.deleteExpenses(List.of(coffee.getId(), rent.getId()), owner.getId());
+        SyncDTO second = changeLogService.changesSince(owner.getId(), cursor);
+        assertThat(second.expenses()).isEmpty();
+        assertThat(second.deleted()).containsExactlyInAnyOrder(
+                new TombstoneDTO(TransactionType.EXPENSE, coffee.getId()), new TombstoneDTO(TransactionType.EXPENSE, rent.getId()));
+        assertThat(changeLogService.currentCursor(owner.getId())).isEqualTo(Long.parseLong(second.cursor()));
+    }
+
+    @Test
+    void reportsRowsDeletedAfterTheirUpsertAsTombstones() {
+        long start = changeLogService.currentCursor(owner.getId());
+        Expense gone = createExpense(owner, "gone");
+        // Deleted without going through the service, as if between reading the page and loading its rows.
+        jdbcTemplate.update("DELETE FROM expenses WHERE id = ?", gone.getId());
+
+        SyncDTO sync = changeLogService.changesSince(owner.getId(), start);
+
+        assertThat(sync.expenses()).isEmpty();
+        assertThat(sync.deleted()).containsExactly(new TombstoneDTO(TransactionType.EXPENSE, gone.getId()));
+    }
+
+    @Test
+    void expiresCursorsOlderThanCompactedEntries() {
+        long stale = changeLogService.currentCursor(owner.getId());
+        createExpense(owner, "old");
+        createExpense(owner, "older");
+        jdbcTemplate.update("UPDATE change_log SET changed_at = now() - interval '400 days' WHERE owner_id = ?", owner.getId());
+        long otherCursor = changeLogService.currentCursor(otherOwner.getId());
+
+        assertThat(changeLogCompactionJob.compact()).isGreaterThanOrEqualTo(2);
+
+        SyncCursorExpiredException expired = catchThrowableOfType(SyncCursorExpiredException.class,
+                () -> changeLogService.changesSince(owner.getId(), stale));
+        assertThat(expired).isNotNull();
+        assertThat(new ApiExceptionHandler().handleSyncCursorExpired(expired).getStatusCode()).isEqualTo(HttpStatus.GONE);
+
+        // A fresh cursor starts at the horizon and picks up later changes.
+        long fresh = changeLogService.currentCursor(owner.getId());
+        Expense later = createExpense(owner, "later");
+        assertThat(changeLogService.changesSince(owner.getId(), fresh).expenses()).extracting(ExpenseDTO::id)
+                .containsExactly(later.getId());
+        assertThat(changeLogService.changesSince(otherOwner.getId(), otherCursor).deleted()).isEmpty();
+    }
+
+    private Expense createExpense(User user, String title) {
+        return expenseService.createExpense(new Expense(title, null, Money.of(BigDecimal.ONE), user), null);
+    }
+
+    private long createUser() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Sync', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+}
@@ -0,0 +1,112 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Following {@code nextCursor} has to visit every matching row exactly once, in order, whatever the page size.
+ */
+class ExpensePagingTest extends EmbeddedPostgresTest {
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        ownerId = createUser();
+        ids = new ArrayList<>();
+        for (long amount = 100; amount <= 700; amount += 100) {
+            ids.add(insert(ownerId, amount));
+        }
+        insert(createUser(), 400);
+    }
+
+    @Test
+    void pagesThroughTheOwnersRowsNewestFirst() {
+        List<CursorPageDTO<ExpenseDTO>> pages = followCursor(cursor ->
+                expenseService.findExpensesPageByOwnerId(ownerId, PageQuery.forOwner(cursor, 3, null, null, null)));
+
+        assertThat(pages).extracting(page -> page.items().size()).containsExactly(3, 3, 1);
+        assertThat(pages).extracting(CursorPageDTO::hasNext).containsExactly(true, true, false);
+        assertThat(idsOf(pages)).containsExactlyElementsOf(ids.reversed());
+    }
+
+    @Test
+    void pagesOldestFirstWithinAValueRange() {
+        List<CursorPageDTO<ExpenseDTO>> pages = followCursor(cursor -> expenseService.findExpensesPageByOwnerId(ownerId,
+                PageQuery.forOwner(cursor, 2, new BigDecimal("2.00"), new BigDecimal("5.00"), "oldest")));
+
+        assertThat(idsOf(pages)).containsExactlyElementsOf(ids.subList(1, 5));
+    }
+
+    @Test
+    void pagesAcrossOwnersByOwnerThenId() {
+        long lowerOwnerId = createUser();
+        long higherOwnerId = createUser();
+        long first = insert(lowerOwnerId, 999_999_001L);
+        long last = insert(higherOwnerId, 999_999_002L);
+        // Inserted after the other owner's row, but listed before it.
+        long second = insert(lowerOwnerId, 999_999_003L);
+
+        List<CursorPageDTO<ExpenseDTO>> pages = followCursor(cursor -> expenseService.findExpensesPage(
+                PageQuery.forAllOwners(cursor, 2, new BigDecimal("9999990.01"), new BigDecimal("9999990.03"))));
+
+        assertThat(idsOf(pages)).containsExactly(first, second, last);
+        assertThat(pages.get(0).nextCursor()).isEqualTo(lowerOwnerId + ":" + second);
+    }
+
+    @Test
+    void rejectsMalformedCursorsAndRanges() {
+        assertThatThrownBy(() -> PageQuery.forOwner("abc", null, null, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageQuery.forAllOwners("12", null, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageQuery.forOwner(null, null, BigDecimal.TEN, BigDecimal.ONE, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(PageQuery.forOwner(null, 10_000, null, null, null).limit()).isEqualTo(PageQuery.MAX_LIMIT);
+    }
+
+    private static List<CursorPageDTO<ExpenseDTO>> followCursor(Function<String, CursorPageDTO<ExpenseDTO>> fetch) {
+        List<CursorPageDTO<ExpenseDTO>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<ExpenseDTO> page = fetch.apply(cursor);
+            pages.add(page);
+            cursor = page.nextCursor();
+        } while (cursor != null && pages.size() < 20);
+        return pages;
+    }
+
+    private static List<Long> idsOf(List<CursorPageDTO<ExpenseDTO>> pages) {
+        return pages.stream().flatMap(page -> page.items().stream()).map(ExpenseDTO::id).toList();
+    }
+
+    private long createUser() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Paging', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+
+    private long insert(long owner, long amountMinor) {
+        return jdbcTemplate.queryForObject("INSERT INTO expenses (title, amount_minor, currency, owner_id) " +
+                "VALUES ('expense', ?, 'USD', ?) RETURNING id", Long.class, amountMinor, owner);
+    }
+}
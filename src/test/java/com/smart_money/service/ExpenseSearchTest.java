@@ -0,0 +1,96 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.request.search.SearchQuery;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search runs against the stored search vector and the trigram index, and never leaves the owner's rows.
+ */
+class ExpenseSearchTest extends EmbeddedPostgresTest {
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long otherOwnerId;
+
+    @BeforeEach
+    void createOwners() {
+        ownerId = createUser();
+        otherOwnerId = createUser();
+    }
+
+    @Test
+    void matchesEveryWordAsAPrefixInTitleOrDescription() {
+        long coffee = insert(ownerId, "Coffee beans", "Ethiopian roast");
+        long cafe = insert(ownerId, "Cafe", "coffee with Ana");
+        insert(ownerId, "Coffee filter", null);
+        insert(otherOwnerId, "Coffee beans", "Ethiopian roast");
+
+        assertThat(ids(expenseService.searchExpenses(ownerId, SearchQuery.parse("coff eth", null, null))))
+                .containsExactly(coffee);
+        assertThat(ids(expenseService.searchExpenses(ownerId, SearchQuery.parse("ana", null, null))))
+                .containsExactly(cafe);
+    }
+
+    @Test
+    void fallsBackToSimilarTitlesWhenNothingMatchesAsAPrefix() {
+        long groceries = insert(ownerId, "Groceries", "weekly shop");
+        insert(ownerId, "Rent", null);
+        insert(otherOwnerId, "Groceries", null);
+
+        assertThat(ids(expenseService.searchExpenses(ownerId, SearchQuery.parse("groceriez", null, null))))
+                .containsExactly(groceries);
+    }
+
+    @Test
+    void pagesThroughEveryMatchOnceInScoreOrder() {
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Repeating the word varies the rank, so page boundaries fall between different scores and within ties.
+            inserted.add(insert(ownerId, "Taxi", "taxi ".repeat(1 + i % 3) + "ride " + i));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<ExpenseDTO> page = expenseService.searchExpenses(ownerId, SearchQuery.parse("taxi", cursor, 3));
+            seen.addAll(ids(page));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(inserted);
+    }
+
+    private long createUser() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Search', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+
+    private long insert(long owner, String title, String description) {
+        return jdbcTemplate.queryForObject("INSERT INTO expenses (title, description, amount_minor, currency, owner_id) " +
+                "VALUES (?, ?, 100, 'USD', ?) RETURNING id", Long.class, title, description, owner);
+    }
+
+    private static List<Long> ids(CursorPageDTO<ExpenseDTO> page) {
+        return page.items().stream().map(ExpenseDTO::id).toList();
+    }
+}
@@ -0,0 +1,151 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.request.expenses.UpdateExpenseDTO;
+import com.smart_money.dto.request.income.UpdateIncomeDTO;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Updates and deletes are single statements scoped to the owner. Someone else's id must behave like an unknown
+ * one and leave no trace, and the ledger moves by exactly what the statements report back.
+ */
+class ExpenseServiceTest extends EmbeddedPostgresTest {
+    private static final Instant AT = Instant.parse("2024-03-10T12:00:00Z");
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long otherOwnerId;
+
+    @BeforeEach
+    void createOwners() {
+        ownerId = createUser();
+        otherOwnerId = createUser();
+        balanceService.rebuildBalance(ownerId);
+        balanceService.rebuildBalance(otherOwnerId);
+    }
+
+    @Test
+    void updatesOnlyTheGivenFieldsAndReturnsTheRow() {
+        long id = insert("expenses", ownerId, "coffee", "with milk", 350);
+
+        ExpenseDTO updated = expenseService.updateExpense(id, ownerId,
+                new UpdateExpenseDTO(null, "black", new BigDecimal("4.20"), null, null, false)).orElseThrow();
+
+        assertThat(updated.title()).isEqualTo("coffee");
+        assertThat(updated.description()).isEqualTo("black");
+        assertThat(updated.value()).isEqualByComparingTo("4.20");
+        assertThat(updated.occurredAt()).isEqualTo(AT);
+        assertThat(updated.ownerId()).isEqualTo(ownerId);
+        assertThat(ledgerExpenses(ownerId)).isEqualTo(420 - 350);
+    }
+
+    @Test
+    void treatsAnotherOwnersRowsAsMissing() {
+        long id = insert("expenses", ownerId, "coffee", null, 350);
+        long incomeId = insert("incomes", ownerId, "salary", null, 10000);
+        Map<String, Object> before = snapshot(id);
+        long changes = changeLogSize();
+
+        assertThat(expenseService.updateExpense(id, otherOwnerId,
+                new UpdateExpenseDTO("stolen", null, new BigDecimal("1"), null, null, false))).isEmpty();
+        assertThat(incomeService.updateIncome(incomeId, otherOwnerId,
+                new UpdateIncomeDTO("stolen", null, new BigDecimal("1"), null, null, false))).isEmpty();
+        assertThat(expenseService.deleteExpense(id, otherOwnerId)).isFalse();
+        assertThat(incomeService.deleteIncome(incomeId, otherOwnerId)).isFalse();
+
+        assertThat(snapshot(id)).isEqualTo(before);
+        assertThat(changeLogSize()).isEqualTo(changes);
+        assertThat(ledgerExpenses(otherOwnerId)).isZero();
+        assertThat(ledgerExpenses(ownerId)).isZero();
+    }
+
+    @Test
+    void rejectsMovingARowIntoAnotherOwnersCategory() {
+        long id = insert("expenses", ownerId, "coffee", null, 350);
+        long foreignCategory = categoryService.createCategory(otherOwnerId, "Food").id();
+
+        assertThatThrownBy(() -> expenseService.updateExpense(id, ownerId,
+                new UpdateExpenseDTO(null, null, null, null, foreignCategory, false)))
+                .isInstanceOf(CategoryNotFoundException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT category_id FROM expenses WHERE id = ?", Long.class, id)).isNull();
+    }
+
+    @Test
+    void bulkDeletesOnlyTheOwnersRowsAndSubtractsWhatWasDeleted() {
+        long first = insert("expenses", ownerId, "first", null, 100);
+        long second = insert("expenses", ownerId, "second", null, 250);
+        long kept = insert("expenses", ownerId, "kept", null, 1000);
+        long foreign = insert("expenses", otherOwnerId, "foreign", null, 5000);
+        balanceService.rebuildBalance(ownerId);
+        balanceService.rebuildBalance(otherOwnerId);
+
+        long deleted = expenseService.deleteExpenses(List.of(first, second, second, foreign, -1L), ownerId);
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM expenses WHERE id IN (?, ?, ?, ?) ORDER BY id", Long.class,
+                first, second, kept, foreign)).containsExactly(kept, foreign);
+        assertThat(ledgerExpenses(ownerId)).isEqualTo(1000);
+        assertThat(ledgerExpenses(otherOwnerId)).isEqualTo(5000);
+        assertThat(jdbcTemplate.queryForList("SELECT entity_id FROM change_log WHERE owner_id = ? AND operation = 'DELETE' " +
+                "ORDER BY entity_id", Long.class, ownerId)).containsExactly(first, second);
+        assertThat(balanceService.reconcileBalance(ownerId)).isFalse();
+    }
+
+    private long createUser() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Owner', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+
+    /**
+     * Inserts past the ledger, so the assertions see only the deltas of the writes under test.
+     */
+    private long insert(String table, long owner, String title, String description, long amountMinor) {
+        return jdbcTemplate.queryForObject("INSERT INTO " + table + " (title, description, amount_minor, currency, " +
+                "occurred_at, owner_id) VALUES (?, ?, ?, 'USD', ?, ?) RETURNING id", Long.class,
+                title, description, amountMinor, Timestamp.from(AT), owner);
+    }
+
+    private Map<String, Object> snapshot(long expenseId) {
+        return jdbcTemplate.queryForMap("SELECT title, description, amount_minor, occurred_at, owner_id FROM expenses " +
+                "WHERE id = ?", expenseId);
+    }
+
+    private long changeLogSize() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM change_log WHERE owner_id IN (?, ?)", Long.class,
+                ownerId, otherOwnerId);
+    }
+
+    private long ledgerExpenses(long owner) {
+        return jdbcTemplate.queryForObject("SELECT total_expenses_minor FROM balance_ledgers WHERE owner_id = ?",
+                Long.class, owner);
+    }
+}
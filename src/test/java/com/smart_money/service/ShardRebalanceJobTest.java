@@ -0,0 +1,117 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.config.ShardDirectory;
+import com.smart_money.config.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Moves one owner between two shards while reading its rows the way requests do, and checks that the rows stay
+ * readable the whole time, including from instances that have not picked up the new placement yet.
+ */
+class ShardRebalanceJobTest extends EmbeddedPostgresTest {
+    private static final int EXPENSES = 20;
+    private static final long REFRESH_MILLIS = 200;
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        JdbcTemplate admin = new JdbcTemplate(POSTGRES.getPostgresDatabase());
+        for (String database : new String[]{"rebalance_0", "rebalance_1"}) {
+            admin.execute("CREATE DATABASE " + database);
+        }
+        registry.add("sharding.shard-urls", () ->
+                POSTGRES.getJdbcUrl("postgres", "rebalance_0") + "," + POSTGRES.getJdbcUrl("postgres", "rebalance_1"));
+        registry.add("sharding.placement-refresh", () -> REFRESH_MILLIS + "ms");
+        registry.add("sharding.rebalance.interval", () -> "1h");
+        registry.add("spring.datasource.hikari.minimum-idle", () -> "1");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "5");
+    }
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRebalanceJob shardRebalanceJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void keepsTheOwnersRowsReadableDuringAndAfterTheMove() throws Exception {
+        long ownerId = shardDirectory.allocateOwnerId();
+        String target = shardDirectory.ringShardFor(ownerId);
+        String source = shardDirectory.shardNames().stream().filter(shard -> !shard.equals(target)).findFirst().orElseThrow();
+        JdbcTemplate sourceJdbc = new JdbcTemplate(shardDirectory.dataSource(source));
+        JdbcTemplate targetJdbc = new JdbcTemplate(shardDirectory.dataSource(target));
+        JdbcTemplate catalog = new JdbcTemplate(shardDirectory.dataSource(shardDirectory.catalogShard()));
+
+        // The owner lives on the shard its ring placement no longer points to, as after a shard is appended.
+        sourceJdbc.update("INSERT INTO users (id, name, email) VALUES (?, 'Moving', ?)", ownerId, "moving-" + ownerId + "@example.com");
+        for (int i = 0; i < EXPENSES; i++) {
+            sourceJdbc.update("INSERT INTO expenses (title, amount_minor, currency, occurred_at, owner_id) VALUES ('expense', ?, 'USD', ?, ?)",
+                    100 + i, Timestamp.from(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i * 3600L)), ownerId);
+        }
+        catalog.update("INSERT INTO shard_placements (owner_id, shard) VALUES (?, ?)", ownerId, source);
+        shardDirectory.refresh();
+        assertThat(readExpenses(ownerId)).isEqualTo(EXPENSES);
+
+        CompletableFuture<Void> move = CompletableFuture.runAsync(() -> {
+            try {
+                shardRebalanceJob.rebalance();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        long placedAt = 0;
+        boolean moved = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!moved) {
+            assertThat(System.nanoTime()).as("move finished in time").isLessThan(deadline);
+            assertThat(readExpenses(ownerId)).as("rows read through the current placement").isEqualTo(EXPENSES);
+
+            String pinned = catalog.query("SELECT shard FROM shard_placements WHERE owner_id = ? AND NOT moving",
+                    rs -> rs.next() ? rs.getString(1) : null, ownerId);
+            if (placedAt == 0 && target.equals(pinned)) placedAt = System.nanoTime();
+            // An instance that loaded the placements just before the pin moved reads the source for two refreshes.
+            if (placedAt != 0 && System.nanoTime() - placedAt < TimeUnit.MILLISECONDS.toNanos(2 * REFRESH_MILLIS)) {
+                assertThat(count(sourceJdbc, ownerId)).as("rows left on the source for stale instances").isEqualTo(EXPENSES);
+            }
+            moved = placedAt != 0 && pinned == null && count(sourceJdbc, ownerId) == 0;
+            Thread.sleep(20);
+        }
+        move.get(30, TimeUnit.SECONDS);
+
+        shardDirectory.refresh();
+        assertThat(shardDirectory.pins()).doesNotContainKey(ownerId);
+        assertThat(shardDirectory.currentShardOf(ownerId)).isEqualTo(target);
+        assertThat(readExpenses(ownerId)).isEqualTo(EXPENSES);
+        assertThat(count(targetJdbc, ownerId)).isEqualTo(EXPENSES);
+        assertThat(sourceJdbc.queryForObject("SELECT count(*) FROM users WHERE id = ?", Long.class, ownerId)).isZero();
+        assertThat(targetJdbc.queryForObject("SELECT sum(amount_minor) FROM expenses WHERE owner_id = ?", Long.class, ownerId))
+                .isEqualTo(EXPENSES * 100L + (EXPENSES - 1) * EXPENSES / 2);
+    }
+
+    private long readExpenses(long ownerId) {
+        return shardRouter.readForOwner(ownerId, () -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM expenses WHERE owner_id = ?", Long.class, ownerId));
+    }
+
+    private static long count(JdbcTemplate jdbc, long ownerId) {
+        return jdbc.queryForObject("SELECT count(*) FROM expenses WHERE owner_id = ?", Long.class, ownerId);
+    }
+}
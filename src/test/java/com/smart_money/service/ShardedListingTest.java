@@ -0,0 +1,102 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.config.ShardDirectory;
+import com.smart_money.dto.request.page.PageQuery;
+import com.smart_money.dto.response.expense.ExpenseDTO;
+import com.smart_money.dto.response.page.CursorPageDTO;
+import com.smart_money.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The listings across all owners gather from every shard. Paging has to merge the shards' pages into one
+ * (owner_id, id) order; row ids alone repeat between shards, since each shard has its own sequence. Each test
+ * seeds its own owners and only looks at their rows.
+ */
+class ShardedListingTest extends EmbeddedPostgresTest {
+    private static final int OWNERS_PER_SHARD = 3;
+    private static final int EXPENSES_PER_OWNER = 3;
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        JdbcTemplate admin = new JdbcTemplate(POSTGRES.getPostgresDatabase());
+        for (String database : new String[]{"listing_0", "listing_1"}) {
+            admin.execute("CREATE DATABASE " + database);
+        }
+        registry.add("sharding.shard-urls", () ->
+                POSTGRES.getJdbcUrl("postgres", "listing_0") + "," + POSTGRES.getJdbcUrl("postgres", "listing_1"));
+        registry.add("sharding.rebalance.interval", () -> "1h");
+        registry.add("spring.datasource.hikari.minimum-idle", () -> "1");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "5");
+    }
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserService userService;
+
+    private final List<Long> ownerIds = new ArrayList<>();
+    private final List<long[]> expenses = new ArrayList<>();
+
+    @BeforeEach
+    void seedBothShards() {
+        Map<String, Integer> ownersByShard = new HashMap<>();
+        while (ownerIds.size() < 2 * OWNERS_PER_SHARD) {
+            long ownerId = shardDirectory.allocateOwnerId();
+            String shard = shardDirectory.ringShardFor(ownerId);
+            if (ownersByShard.merge(shard, 1, Integer::sum) > OWNERS_PER_SHARD) continue;
+
+            JdbcTemplate jdbc = new JdbcTemplate(shardDirectory.dataSource(shard));
+            jdbc.update("INSERT INTO users (id, name, email) VALUES (?, 'Listed', ?)", ownerId, "listed-" + ownerId + "@example.com");
+            for (int i = 0; i < EXPENSES_PER_OWNER; i++) {
+                long id = jdbc.queryForObject("INSERT INTO expenses (title, amount_minor, currency, owner_id) " +
+                        "VALUES ('expense', 100, 'USD', ?) RETURNING id", Long.class, ownerId);
+                expenses.add(new long[]{ownerId, id});
+            }
+            ownerIds.add(ownerId);
+        }
+        expenses.sort(Comparator.<long[]>comparingLong(key -> key[0]).thenComparingLong(key -> key[1]));
+    }
+
+    @Test
+    void pagesThroughEveryShardInOwnerAndIdOrder() {
+        for (int limit : new int[]{1, 4, 7, 50}) {
+            List<long[]> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                CursorPageDTO<ExpenseDTO> page = expenseService.findExpensesPage(PageQuery.forAllOwners(cursor, limit, null, null));
+                assertThat(page.items()).as("page size with limit %d", limit).hasSizeLessThanOrEqualTo(limit);
+                page.items().stream()
+                        .filter(expense -> ownerIds.contains(expense.ownerId()))
+                        .forEach(expense -> seen.add(new long[]{expense.ownerId(), expense.id()}));
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertThat(seen).as("rows with limit %d", limit).containsExactlyElementsOf(expenses);
+        }
+    }
+
+    @Test
+    void listsTheUsersOfEveryShard() {
+        assertThat(userService.findAllUsers()).extracting(User::getId).containsAll(ownerIds);
+        assertThat(expenseService.findAllExpenses()).filteredOn(expense -> ownerIds.contains(expense.ownerId()))
+                .hasSize(expenses.size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.dto.response.imports.ImportErrorDTO;
+import com.smart_money.dto.response.imports.ImportResultDTO;
+import com.smart_money.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Rejected rows are reported without failing the rest of the file, malformed input stops the import where it is
+ * found, and the ledger always matches the rows that made it in.
+ */
+class TransactionImportServiceTest extends EmbeddedPostgresTest {
+    @Autowired
+    private TransactionImportService importService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+
+    @BeforeEach
+    void createOwner() {
+        ownerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Import', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+        // An existing ledger, so the batches apply their deltas to it instead of it being rebuilt on first read.
+        balanceService.rebuildBalance(ownerId);
+    }
+
+    @Test
+    void importsValidCsvRowsAndReportsTheRejectedOnes() throws IOException {
+        ImportResultDTO result = importService.importCsv(ownerId, TransactionType.EXPENSE, input("""
+                title,description,value,occurredAt
+                coffee,"with milk, no sugar",3.50,2024-01-05
+                rent,,1200,2024-01-01T09:00:00+02:00
+                ,missing title,10,
+                bad value,,ten,
+                bad date,,10,05/01/2024
+                too precise,,1.005,
+
+                tail,,0.25,
+                """));
+
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(result.stoppedAtRow()).isNull();
+        assertThat(result.errors()).extracting(ImportErrorDTO::row).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(result.errors()).extracting(ImportErrorDTO::message).containsExactly(
+                "Title is required",
+                "Value must be a number",
+                "Occurred at must be an ISO date or date-time",
+                "Value must have at most 2 decimal places");
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT description FROM expenses WHERE owner_id = ? AND title = 'coffee'", String.class, ownerId))
+                .containsExactly("with milk, no sugar");
+        assertThat(occurredAt("coffee")).isEqualTo(Instant.parse("2024-01-05T00:00:00Z"));
+        assertThat(occurredAt("rent")).isEqualTo(Instant.parse("2024-01-01T07:00:00Z"));
+        assertLedgerMatchesRows(new BigDecimal("1203.75"));
+    }
+
+    @Test
+    void stopsAtAnUnterminatedQuoteAndKeepsTheRowsBeforeIt() throws IOException {
+        ImportResultDTO result = importService.importCsv(ownerId, TransactionType.EXPENSE, input("""
+                title,value
+                first,1
+                second,2
+                "broken,3
+                fourth,4
+                """));
+
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.stoppedAtRow()).isEqualTo(3);
+        assertThat(result.errors()).containsExactly(
+                new ImportErrorDTO(3, "Malformed CSV, import stopped: Unterminated quoted field"));
+        assertLedgerMatchesRows(new BigDecimal("3.00"));
+    }
+
+    @Test
+    void rejectsACsvWithoutTheRequiredColumns() {
+        assertThatThrownBy(() -> importService.importCsv(ownerId, TransactionType.EXPENSE, input("name,amount\nx,1\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readsJsonOccurredAtWithTheSameParserAsCsv() throws IOException {
+        ImportResultDTO result = importService.importJson(ownerId, TransactionType.INCOME, input("""
+                [
+                  {"title": "date only", "value": 10, "occurredAt": "2024-03-01"},
+                  {"title": "date-time", "value": 20, "occurredAt": "2024-03-01T10:15:00Z"},
+                  {"title": "epoch", "value": 30, "occurredAt": 1709287200},
+                  {"title": "garbage", "value": 40, "occurredAt": "yesterday"},
+                  {"title": "no date", "value": 50}
+                ]
+                """));
+
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.errors()).containsExactly(
+                new ImportErrorDTO(3, "Occurred at must be an ISO date or date-time"),
+                new ImportErrorDTO(4, "Occurred at must be an ISO date or date-time"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT occurred_at FROM incomes WHERE owner_id = ? AND title = 'date only'", OffsetDateTime.class, ownerId)
+                .toInstant()).isEqualTo(Instant.parse("2024-03-01T00:00:00Z"));
+    }
+
+    @Test
+    void rejectsJsonRowsThatAreNotObjectsAndStopsAtASyntaxError() throws IOException {
+        ImportResultDTO result = importService.importJson(ownerId, TransactionType.EXPENSE, input("""
+                [
+                  {"title": "first", "value": 1.25},
+                  42,
+                  {"title": "third", "value": -1},
+                  {"title": "fourth", "value": 2},
+                  {"title": "fifth", "value":
+                """));
+
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.stoppedAtRow()).isEqualTo(5);
+        assertThat(result.errors()).extracting(ImportErrorDTO::row).containsExactly(2L, 3L, 5L);
+        assertThat(result.errors().get(0).message()).isEqualTo("Row must be a JSON object");
+        assertThat(result.errors().get(1).message()).isEqualTo("Value must be positive");
+        assertThat(result.errors().get(2).message()).startsWith("Malformed JSON, import stopped");
+        assertLedgerMatchesRows(new BigDecimal("3.25"));
+    }
+
+    private Instant occurredAt(String title) {
+        return jdbcTemplate.queryForObject("SELECT occurred_at FROM expenses WHERE owner_id = ? AND title = ?",
+                OffsetDateTime.class, ownerId, title).toInstant();
+    }
+
+    /**
+     * The ledger kept up by the batches agrees with the imported rows and with a rebuild from them.
+     */
+    private void assertLedgerMatchesRows(BigDecimal expenses) {
+        assertThat(balanceService.calculateBalanceByUserId(ownerId).getTotalExpenses()).isEqualByComparingTo(expenses);
+        assertThat(balanceService.reconcileBalance(ownerId)).isFalse();
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
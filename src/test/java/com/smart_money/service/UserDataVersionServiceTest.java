@@ -0,0 +1,140 @@
+package com.smart_money.service;
+
+import com.smart_money.EmbeddedPostgresTest;
+import com.smart_money.config.ReadYourWritesTracker;
+import com.smart_money.controller.UserDataETags;
+import com.smart_money.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conditional reads are answered from the in-memory version, which must still move past every committed write:
+ * this instance's own at once, another instance's within the cache's lifetime.
+ */
+class UserDataVersionServiceTest extends EmbeddedPostgresTest {
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
+    @Autowired
+    private UserDataETags userDataETags;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, last_name, email, password) VALUES ('Version', 'Test', ?, 'x') RETURNING id",
+                Long.class, UUID.randomUUID() + "@example.com");
+    }
+
+    @Test
+    void bumpsOncePerTransactionAndPublishesTheVersionOnCommit() {
+        long before = userDataVersionService.currentVersion(userId);
+
+        long bumped = transactionTemplate.execute(status -> {
+            long first = userDataVersionService.bump(userId);
+            assertThat(userDataVersionService.bump(userId)).isEqualTo(first);
+            assertThat(userDataVersionService.currentVersion(userId)).as("before commit").isEqualTo(before);
+            return first;
+        });
+
+        assertThat(bumped).isEqualTo(before + 1);
+        assertThat(userDataVersionService.currentVersion(userId)).isEqualTo(bumped);
+    }
+
+    @Test
+    void rolledBackBumpsAreNeverServed() {
+        long before = userDataVersionService.currentVersion(userId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userDataVersionService.bump(userId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(userDataVersionService.currentVersion(userId)).isEqualTo(before);
+        assertThat(userRepository.findDataVersionById(userId)).contains(before);
+    }
+
+    @Test
+    void answersNotModifiedUntilTheVersionMoves() {
+        String etag = etagOf(get(null));
+
+        assertThat(userDataETags.checkNotModified(get(etag), userId)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> userDataVersionService.bump(userId));
+        ServletWebRequest changed = get(etag);
+        assertThat(userDataETags.checkNotModified(changed, userId)).isFalse();
+        assertThat(etagOf(changed)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void seesAnotherInstancesWriteOnceItsEntryExpiresEvenWhilePolled() throws InterruptedException {
+        UserDataVersionService instance = new UserDataVersionService(userRepository, readYourWritesTracker,
+                1000, Duration.ofMillis(200));
+        long before = instance.currentVersion(userId);
+
+        // Another instance commits a write; this one keeps being asked in the meantime.
+        jdbcTemplate.update("UPDATE users SET data_version = data_version + 1 WHERE id = ?", userId);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        long seen = instance.currentVersion(userId);
+        while (seen == before && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            seen = instance.currentVersion(userId);
+        }
+
+        assertThat(seen).isEqualTo(before + 1);
+    }
+
+    @Test
+    void bumpsTheVersionWhenReconciliationCorrectsTheLedger() {
+        balanceService.rebuildBalance(userId);
+        // A write that bypassed the ledger.
+        jdbcTemplate.update("INSERT INTO expenses (title, amount_minor, currency, owner_id) VALUES ('drift', 500, 'USD', ?)",
+                userId);
+        long before = userDataVersionService.currentVersion(userId);
+
+        assertThat(balanceService.reconcileBalance(userId)).isTrue();
+        assertThat(userDataVersionService.currentVersion(userId)).isEqualTo(before + 1);
+
+        assertThat(balanceService.reconcileBalance(userId)).isFalse();
+        assertThat(userDataVersionService.currentVersion(userId)).isEqualTo(before + 1);
+    }
+
+    private ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/balance");
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private String etagOf(ServletWebRequest request) {
+        userDataETags.checkNotModified(request, userId);
+        return request.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}